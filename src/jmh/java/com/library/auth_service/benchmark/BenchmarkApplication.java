@@ -0,0 +1,31 @@
+package com.library.auth_service.benchmark;
+
+import com.library.auth_service.AuthServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application inside a benchmark fork, so benchmarks measure the real, fully wired beans
+ */
+final class BenchmarkApplication {
+    
+    private BenchmarkApplication() {}
+    
+    static ConfigurableApplicationContext start(String... args) {
+        // Passed as command line arguments so they override application.yaml
+        List<String> arguments = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--logging.level.root=WARN",
+            "--logging.level.com.library=WARN",
+            // A benchmark logs in far more often than any real user
+            "--auth.login.rate-limit.enabled=false",
+            // No broker around; the audit pipeline still runs, into memory
+            "--auth.audit.sink=memory"
+        ));
+        arguments.addAll(List.of(args));
+        return new SpringApplicationBuilder(AuthServiceApplication.class).run(arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,62 @@
+package com.library.auth_service.benchmark;
+
+import com.library.auth_service.dto.AuthResponse;
+import com.library.auth_service.dto.LoginRequest;
+import com.library.auth_service.loadtest.UserServiceStub;
+import com.library.auth_service.service.AuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuthService.login against an in-process user-service stub without added latency,
+ * so the result is the cost of this service's side of a login: HTTP client, JSON and token minting
+ * 
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="LoginBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+    
+    private UserServiceStub userService;
+    private ConfigurableApplicationContext context;
+    private AuthService authService;
+    private LoginRequest request;
+    
+    @Setup
+    public void setUp() throws IOException {
+        userService = new UserServiceStub(0);
+        context = BenchmarkApplication.start("--user-service.url=" + userService.getUrl());
+        authService = context.getBean(AuthService.class);
+        request = new LoginRequest();
+        request.setUsername("student");
+        request.setPassword("password");
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+        userService.close();
+    }
+    
+    @Benchmark
+    public AuthResponse login() {
+        return authService.login(request, "127.0.0.1");
+    }
+}
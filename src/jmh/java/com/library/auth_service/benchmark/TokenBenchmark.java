@@ -0,0 +1,84 @@
+package com.library.auth_service.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.auth_service.controller.AuthController;
+import com.library.auth_service.dto.TokenValidationResponse;
+import com.library.auth_service.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting and validation hot paths
+ * 
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="TokenBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenBenchmark {
+    
+    private ConfigurableApplicationContext context;
+    private JwtUtil jwtUtil;
+    private AuthController authController;
+    private ObjectMapper objectMapper;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        jwtUtil = context.getBean(JwtUtil.class);
+        authController = context.getBean(AuthController.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        token = jwtUtil.generateToken("student", "STUDENT", 1L);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("student", "STUDENT", 1L);
+    }
+    
+    /**
+     * Full signature and claims check, bypassing the verified-token cache
+     */
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+    
+    @Benchmark
+    public Claims extractClaims() {
+        return jwtUtil.extractClaims(token);
+    }
+    
+    /**
+     * GET /api/auth/validate as the controller serves it, including the JSON response body
+     */
+    @Benchmark
+    public byte[] controllerValidateToken() throws JsonProcessingException {
+        ResponseEntity<TokenValidationResponse> response = authController.validateToken(token);
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+}
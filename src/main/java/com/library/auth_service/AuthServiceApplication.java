@@ -1,18 +1,28 @@
 package com.library.auth_service;
 
+import com.library.auth_service.logging.LoggingRuntimeHints;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.TypeExcludeFilter;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
 @ComponentScan(
     basePackages = {"com.library.auth_service", "com.library.common"},
-    excludeFilters = @ComponentScan.Filter(
-        type = FilterType.ASSIGNABLE_TYPE,
-        classes = com.library.common.security.JwtUtil.class
-    )
+    excludeFilters = {
+        @ComponentScan.Filter(
+            type = FilterType.ASSIGNABLE_TYPE,
+            classes = com.library.common.security.JwtUtil.class
+        ),
+        // Kept from @SpringBootApplication's own scan, so that test slices such as @WebMvcTest stay slices
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class)
+    }
 )
+@ImportRuntimeHints(LoggingRuntimeHints.class)
 public class AuthServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AuthServiceApplication.class, args);
@@ -0,0 +1,57 @@
+package com.library.auth_service.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Publishes audit events to RabbitMQ, one JSON message per event routed by event type (auth.login, ...)
+ * A whole batch is sent on a single channel in one go instead of checking a channel out per event.
+ */
+@Component
+@RegisterReflectionForBinding(AuditEvent.class)
+@ConditionalOnClass(name = "org.springframework.amqp.rabbit.core.RabbitTemplate")
+@ConditionalOnProperty(name = "auth.audit.sink", havingValue = "amqp", matchIfMissing = true)
+public class AmqpAuditSink implements AuditSink {
+    
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${auth.audit.amqp.exchange:library.audit}")
+    private String exchange;
+    
+    public AmqpAuditSink(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public void publish(List<AuditEvent> batch) {
+        rabbitTemplate.invoke(operations -> {
+            for (AuditEvent event : batch) {
+                operations.send(exchange, event.getType().getRoutingKey(), toMessage(event));
+            }
+            return null;
+        });
+    }
+    
+    private Message toMessage(AuditEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        try {
+            return new Message(objectMapper.writeValueAsBytes(event), properties);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
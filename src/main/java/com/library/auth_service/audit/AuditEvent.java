@@ -0,0 +1,46 @@
+package com.library.auth_service.audit;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * One login, registration or token validation, as published to the audit log
+ */
+public class AuditEvent {
+    
+    public enum Type {
+        LOGIN, REGISTER, VALIDATE;
+        
+        private final String routingKey = "auth." + name().toLowerCase(Locale.ROOT);
+        
+        public String getRoutingKey() { return routingKey; }
+    }
+    
+    private final Type type;
+    private final String outcome;
+    private final String username;
+    private final Long userId;
+    private final String clientIp;
+    private final Instant timestamp;
+    
+    public AuditEvent(Type type, String outcome, String username, Long userId, String clientIp) {
+        this.type = type;
+        this.outcome = outcome;
+        this.username = username;
+        this.userId = userId;
+        this.clientIp = clientIp;
+        this.timestamp = Instant.now();
+    }
+    
+    public Type getType() { return type; }
+    
+    public String getOutcome() { return outcome; }
+    
+    public String getUsername() { return username; }
+    
+    public Long getUserId() { return userId; }
+    
+    public String getClientIp() { return clientIp; }
+    
+    public Instant getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,181 @@
+package com.library.auth_service.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit log: request threads only enqueue events, a background thread publishes them in batches
+ *
+ * Recording never blocks. When the buffer is full the event is dropped; with the SAMPLE overflow
+ * policy only one in sample-rate events is kept once the buffer is half full, so a burst thins
+ * out the audit trail evenly instead of losing its tail. Both are counted. The publisher thread
+ * sends whatever is buffered every flush-interval, or as soon as a full batch is there, and drains
+ * the buffer on shutdown after the web server has stopped taking requests.
+ */
+@Component
+public class AuditPublisher implements SmartLifecycle, MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditPublisher.class);
+    
+    public enum OverflowPolicy { DROP, SAMPLE }
+    
+    private final AuditSink sink;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private AuditRingBuffer<AuditEvent> buffer;
+    private volatile boolean running;
+    private Thread publisher;
+    
+    @Value("${auth.audit.buffer-size:8192}")
+    private int bufferSize;
+    
+    @Value("${auth.audit.batch-size:256}")
+    private int batchSize;
+    
+    @Value("${auth.audit.flush-interval:200ms}")
+    private Duration flushInterval;
+    
+    @Value("${auth.audit.overflow-policy:DROP}")
+    private String overflowPolicy;
+    
+    @Value("${auth.audit.sample-rate:10}")
+    private int sampleRate;
+    
+    @Value("${auth.audit.shutdown-timeout:5s}")
+    private Duration shutdownTimeout;
+    
+    private OverflowPolicy policy;
+    
+    public AuditPublisher(ObjectProvider<AuditSink> sink) {
+        // No sink (auth.audit.sink=none) turns auditing off
+        this.sink = sink.getIfAvailable();
+    }
+    
+    @PostConstruct
+    void init() {
+        buffer = new AuditRingBuffer<>(bufferSize);
+        policy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+    }
+    
+    /**
+     * Queue an event for publishing, or count it as dropped / sampled out if the buffer is (nearly) full
+     */
+    public void record(AuditEvent event) {
+        if (sink == null) {
+            return;
+        }
+        if (policy == OverflowPolicy.SAMPLE && buffer.size() >= buffer.capacity() / 2
+                && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            sampled.increment();
+            return;
+        }
+        if (!running || !buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+    
+    @Override
+    public void start() {
+        if (sink == null) {
+            return;
+        }
+        running = true;
+        publisher = Thread.ofPlatform().name("audit-publisher").daemon().start(this::publishLoop);
+    }
+    
+    @Override
+    public void stop() {
+        if (publisher == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(publisher);
+        try {
+            publisher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (publisher.isAlive()) {
+            logger.warn("Audit publisher did not drain within {}, {} event(s) lost", shutdownTimeout, buffer.size());
+        }
+        publisher = null;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return publisher != null;
+    }
+    
+    /**
+     * Stop after the web server (and its graceful shutdown), so events of the last requests are still published
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+    
+    private void publishLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            boolean stopping = !running;
+            int drained = buffer.drainTo(batch, batchSize);
+            if (drained > 0) {
+                publish(batch);
+                batch.clear();
+            }
+            if (stopping && drained == 0) {
+                return;
+            }
+            if (drained < batchSize && running) {
+                LockSupport.parkNanos(flushInterval.toNanos());
+            }
+        }
+    }
+    
+    private void publish(List<AuditEvent> batch) {
+        try {
+            sink.publish(batch);
+            published.add(batch.size());
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            logger.warn("Failed to publish {} audit event(s): {}", batch.size(), e.getMessage());
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, published, "published");
+        counter(registry, dropped, "dropped");
+        counter(registry, sampled, "sampled");
+        counter(registry, failed, "failed");
+        Gauge.builder("auth.audit.buffer.size", this, publisher -> publisher.buffer.size())
+                .description("Audit events waiting to be published")
+                .register(registry);
+    }
+    
+    private static void counter(MeterRegistry registry, LongAdder count, String result) {
+        FunctionCounter.builder("auth.audit.events", count, LongAdder::sum)
+                .tag("result", result)
+                .description("Audit events by what happened to them: published, dropped or sampled out when the buffer was full, or failed to publish")
+                .register(registry);
+    }
+}
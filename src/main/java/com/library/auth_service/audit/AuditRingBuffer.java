@@ -0,0 +1,89 @@
+package com.library.auth_service.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer
+ *
+ * Each slot carries a sequence number telling whose turn it is: a producer claims a position with
+ * one CAS on the tail and publishes the element by advancing the slot's sequence, the consumer
+ * takes elements in order and hands the slot back to the producers one lap ahead. A full buffer
+ * rejects the element instead of waiting.
+ */
+final class AuditRingBuffer<E> {
+    
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only written by the consumer; volatile so that size() can be read from anywhere
+    private volatile long head;
+    
+    AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        elements = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+    
+    int capacity() {
+        return elements.length;
+    }
+    
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+    
+    /**
+     * Append element; false if the buffer is full
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    // Volatile write publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                // The consumer has not freed this slot from the previous lap yet
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Move up to max published elements into batch, in order; consumer thread only
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(List<E> batch, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                // Empty, or the producer that claimed this slot has not published yet
+                break;
+            }
+            batch.add((E) elements[index]);
+            elements[index] = null;
+            sequences.set(index, position + elements.length);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+}
@@ -0,0 +1,11 @@
+package com.library.auth_service.audit;
+
+import java.util.List;
+
+/**
+ * Destination of audit event batches; only ever called from the audit publisher thread
+ */
+public interface AuditSink {
+    
+    void publish(List<AuditEvent> batch);
+}
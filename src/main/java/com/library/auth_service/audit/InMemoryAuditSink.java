@@ -0,0 +1,44 @@
+package com.library.auth_service.audit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the most recent audit events in memory instead of publishing them
+ * Stands in for the broker in tests and local runs (auth.audit.sink=memory).
+ */
+@Component
+@ConditionalOnProperty(name = "auth.audit.sink", havingValue = "memory")
+public class InMemoryAuditSink implements AuditSink {
+    
+    private final ArrayDeque<AuditEvent> events = new ArrayDeque<>();
+    
+    @Value("${auth.audit.memory.capacity:10000}")
+    private int capacity;
+    
+    @Override
+    public synchronized void publish(List<AuditEvent> batch) {
+        for (AuditEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+    
+    /**
+     * Published events, oldest first
+     */
+    public synchronized List<AuditEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+    
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,120 @@
+package com.library.auth_service.client;
+
+import com.library.auth_service.dto.CreateUserRequest;
+import com.library.auth_service.dto.UserResponse;
+import com.library.auth_service.dto.ValidateCredentialsRequest;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Non-blocking client for the internal user-service endpoints
+ * Errors are signalled as WebClientResponseException / WebClientRequestException and mapped by the caller.
+ * Shares the user-service bulkhead, circuit breaker, metrics and UserServiceCodec with the blocking client.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveUserServiceClient {
+    
+    private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final UserServiceMetrics metrics;
+    private final UserServiceCodec codec;
+    
+    public ReactiveUserServiceClient(@Qualifier("userServiceWebClient") WebClient webClient,
+                                     CircuitBreaker userServiceCircuitBreaker,
+                                     Bulkhead userServiceBulkhead,
+                                     UserServiceMetrics metrics,
+                                     UserServiceCodec codec) {
+        this.webClient = webClient;
+        this.circuitBreaker = userServiceCircuitBreaker;
+        this.bulkhead = userServiceBulkhead;
+        this.metrics = metrics;
+        this.codec = codec;
+    }
+    
+    /**
+     * Validate user credentials
+     * POST /api/users/internal/validate
+     */
+    public Mono<ResponseEntity<UserResponse>> validateCredentials(ValidateCredentialsRequest request) {
+        return post(UserServiceMetrics.VALIDATE, "/api/users/internal/validate", () -> codec.write(request));
+    }
+    
+    /**
+     * Create a user
+     * POST /api/users/internal/create
+     */
+    public Mono<ResponseEntity<UserResponse>> createUser(CreateUserRequest request) {
+        return post(UserServiceMetrics.CREATE, "/api/users/internal/create", () -> codec.write(request));
+    }
+    
+    /**
+     * One page of the users that are restricted, pending approval or rejected
+     * GET /api/users/internal/blocked?page=...&size=...
+     */
+    public Mono<List<UserResponse>> blockedUsers(int page, int size) {
+        return call(UserServiceMetrics.BLOCKED, webClient.get()
+                .uri("/api/users/internal/blocked?page={page}&size={size}", page, size)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .defaultIfEmpty(new byte[0])
+                .map(this::readUsers));
+    }
+    
+    private Mono<ResponseEntity<UserResponse>> post(String endpoint, String path, Body body) {
+        return call(endpoint, Mono.fromCallable(body::encode)
+                .flatMap(json -> webClient.post()
+                        .uri(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(json)
+                        .retrieve()
+                        .toEntity(byte[].class))
+                .map(this::readUser));
+    }
+    
+    private <T> Mono<T> call(String endpoint, Mono<T> request) {
+        Mono<T> call = request
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(response -> metrics.record(endpoint, start, null))
+                    .doOnError(e -> metrics.record(endpoint, start, e));
+        });
+    }
+    
+    private ResponseEntity<UserResponse> readUser(ResponseEntity<byte[]> response) {
+        try {
+            return new ResponseEntity<>(codec.readUser(response.getBody()), response.getHeaders(), response.getStatusCode());
+        } catch (IOException e) {
+            throw new DecodingException("Cannot read user-service response", e);
+        }
+    }
+    
+    private List<UserResponse> readUsers(byte[] body) {
+        try {
+            return codec.readUsers(body);
+        } catch (IOException e) {
+            throw new DecodingException("Cannot read user-service response", e);
+        }
+    }
+    
+    private interface Body {
+        byte[] encode() throws IOException;
+    }
+}
@@ -0,0 +1,124 @@
+package com.library.auth_service.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.library.auth_service.dto.CreateUserRequest;
+import com.library.auth_service.dto.UserResponse;
+import com.library.auth_service.dto.ValidateCredentialsRequest;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Client for the internal user-service endpoints
+ * Errors are reported as RestClientException subclasses and mapped by the caller.
+ * Calls go through the user-service bulkhead and circuit breaker, which reject them with
+ * BulkheadFullException / CallNotPermittedException instead of waiting on a failing upstream.
+ * Every call is timed per endpoint through UserServiceMetrics.
+ * Bodies are written and read by UserServiceCodec; the user is parsed straight off the response stream.
+ */
+@Component
+@Profile("!reactive")
+public class UserServiceClient {
+    
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final UserServiceMetrics metrics;
+    private final UserServiceCodec codec;
+    
+    @Value("${user-service.url}")
+    private String userServiceUrl;
+    
+    public UserServiceClient(@Qualifier("userServiceRestTemplate") RestTemplate restTemplate,
+                             CircuitBreaker userServiceCircuitBreaker,
+                             Bulkhead userServiceBulkhead,
+                             UserServiceMetrics metrics,
+                             UserServiceCodec codec) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = userServiceCircuitBreaker;
+        this.bulkhead = userServiceBulkhead;
+        this.metrics = metrics;
+        this.codec = codec;
+    }
+    
+    /**
+     * Validate user credentials
+     * POST /api/users/internal/validate
+     */
+    public ResponseEntity<UserResponse> validateCredentials(ValidateCredentialsRequest request) {
+        return post(UserServiceMetrics.VALIDATE, "/api/users/internal/validate", () -> codec.write(request));
+    }
+    
+    /**
+     * Create a user
+     * POST /api/users/internal/create
+     */
+    public ResponseEntity<UserResponse> createUser(CreateUserRequest request) {
+        return post(UserServiceMetrics.CREATE, "/api/users/internal/create", () -> codec.write(request));
+    }
+    
+    /**
+     * One page of the users that are restricted, pending approval or rejected
+     * GET /api/users/internal/blocked?page=...&size=...
+     */
+    public List<UserResponse> blockedUsers(int page, int size) {
+        ResponseExtractor<List<UserResponse>> readUsers = response -> {
+            try {
+                return codec.readUsers(response.getBody());
+            } catch (JsonProcessingException e) {
+                throw new RestClientException("Cannot read user-service response", e);
+            }
+        };
+        return call(UserServiceMetrics.BLOCKED, () -> restTemplate.execute(
+            userServiceUrl + "/api/users/internal/blocked?page={page}&size={size}", HttpMethod.GET, null, readUsers, page, size));
+    }
+    
+    private ResponseEntity<UserResponse> post(String endpoint, String path, Body body) {
+        RequestCallback writeBody = request -> {
+            byte[] json = body.encode();
+            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.getHeaders().setContentLength(json.length);
+            request.getBody().write(json);
+        };
+        // Only reached for 2xx; error statuses are raised as HttpStatusCodeException before
+        ResponseExtractor<ResponseEntity<UserResponse>> readUser = response -> {
+            try {
+                return new ResponseEntity<>(codec.readUser(response.getBody()), response.getHeaders(), response.getStatusCode());
+            } catch (JsonProcessingException e) {
+                throw new RestClientException("Cannot read user-service response", e);
+            }
+        };
+        
+        return call(endpoint, () -> restTemplate.execute(userServiceUrl + path, HttpMethod.POST, writeBody, readUser));
+    }
+    
+    private <T> T call(String endpoint, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = bulkhead.executeSupplier(() -> circuitBreaker.executeSupplier(call));
+            metrics.record(endpoint, start, null);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.record(endpoint, start, e);
+            throw e;
+        }
+    }
+    
+    private interface Body {
+        byte[] encode() throws IOException;
+    }
+}
@@ -0,0 +1,194 @@
+package com.library.auth_service.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.auth_service.dto.CreateUserRequest;
+import com.library.auth_service.dto.UserResponse;
+import com.library.auth_service.dto.ValidateCredentialsRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming JSON reader and writer for the user-service exchange.
+ *
+ * Bodies are read token by token straight into UserResponse; fields it does not have are skipped
+ * without being built, and error bodies are only scanned for their message. Parsers and generators
+ * come from the JsonFactory of Spring's ObjectMapper, so the application's parser settings and
+ * limits apply without going through data binding.
+ */
+@Component
+public class UserServiceCodec {
+    
+    private final JsonFactory jsonFactory;
+    
+    public UserServiceCodec(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+    
+    public byte[] write(ValidateCredentialsRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("username", request.getUsername());
+            generator.writeStringField("password", request.getPassword());
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+    
+    public byte[] write(CreateUserRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("username", request.getUsername());
+            generator.writeStringField("email", request.getEmail());
+            generator.writeStringField("password", request.getPassword());
+            generator.writeStringField("role", request.getRole());
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Read a user from a response body as it arrives; null for an empty body or a JSON null
+     */
+    public UserResponse readUser(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return readUser(parser);
+        }
+    }
+    
+    public UserResponse readUser(byte[] body) throws IOException {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return readUser(parser);
+        }
+    }
+    
+    /**
+     * Read a JSON array of users as it arrives; empty for an empty body or a JSON null
+     */
+    public List<UserResponse> readUsers(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return List.of();
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of users but found " + token);
+            }
+            List<UserResponse> users = new ArrayList<>();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of the array of users");
+                }
+                UserResponse user = readUser(parser, token);
+                if (user != null) {
+                    users.add(user);
+                }
+            }
+            return users;
+        }
+    }
+    
+    public List<UserResponse> readUsers(byte[] body) throws IOException {
+        if (body == null || body.length == 0) {
+            return List.of();
+        }
+        return readUsers(new ByteArrayInputStream(body));
+    }
+    
+    /**
+     * The message (or else error) field of a user-service error body; null if it has neither
+     */
+    public String readErrorMessage(byte[] body) throws IOException {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String error = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                    if ("message".equals(field)) {
+                        return parser.getText();
+                    }
+                    if ("error".equals(field)) {
+                        error = parser.getText();
+                    }
+                }
+                parser.skipChildren();
+            }
+            return error;
+        }
+    }
+    
+    private static UserResponse readUser(JsonParser parser) throws IOException {
+        return readUser(parser, parser.nextToken());
+    }
+    
+    private static UserResponse readUser(JsonParser parser, JsonToken token) throws IOException {
+        if (token == null || token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a user object but found " + token);
+        }
+        UserResponse user = new UserResponse();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> user.setId(value.isNumeric() ? parser.getLongValue() : null);
+                case "username" -> user.setUsername(parser.getValueAsString());
+                case "email" -> user.setEmail(parser.getValueAsString());
+                case "role" -> user.setRole(parser.getValueAsString());
+                case "restricted" -> user.setRestricted(parser.getValueAsBoolean());
+                case "restrictionReason" -> user.setRestrictionReason(parser.getValueAsString());
+                case "pendingApproval" -> user.setPendingApproval(parser.getValueAsBoolean());
+                case "rejected" -> user.setRejected(parser.getValueAsBoolean());
+                case "createdAt" -> user.setCreatedAt(readDateTime(parser, value));
+                case "updatedAt" -> user.setUpdatedAt(readDateTime(parser, value));
+                default -> {
+                    // Skipped below
+                }
+            }
+            // Steps over an object or array value, whether unknown or of an unexpected shape
+            parser.skipChildren();
+        }
+        return user;
+    }
+    
+    /**
+     * ISO local date-time; timestamps are only passed on to the client, so anything else is dropped
+     * rather than failing the login
+     */
+    private static LocalDateTime readDateTime(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(parser.getText());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
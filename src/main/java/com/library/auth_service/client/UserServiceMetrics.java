@@ -0,0 +1,74 @@
+package com.library.auth_service.client;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-endpoint timers and error counters for user-service calls, shared by both clients
+ *
+ * auth.user-service.requests{endpoint,outcome} times every call, including calls rejected by the
+ * circuit breaker or bulkhead. auth.user-service.errors{endpoint,outcome} counts the calls that
+ * indicate a user-service problem; 4xx answers (bad credentials, duplicate user) are not errors.
+ */
+@Component
+public class UserServiceMetrics {
+    
+    static final String VALIDATE = "validate";
+    static final String CREATE = "create";
+    static final String BLOCKED = "blocked";
+    
+    private final MeterRegistry registry;
+    
+    public UserServiceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    /**
+     * Record a call to endpoint that started at startNanos (System.nanoTime) and failed with error, or succeeded if null
+     */
+    void record(String endpoint, long startNanos, Throwable error) {
+        String outcome = outcome(error);
+        Timer.builder("auth.user-service.requests")
+                .description("Calls to user-service")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (error != null && !"client_error".equals(outcome)) {
+            Counter.builder("auth.user-service.errors")
+                    .description("Failed or rejected calls to user-service")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .increment();
+        }
+    }
+    
+    private static String outcome(Throwable error) {
+        if (error == null) {
+            return "success";
+        }
+        if (error instanceof CallNotPermittedException || error instanceof BulkheadFullException) {
+            return "rejected";
+        }
+        int status = 0;
+        if (error instanceof RestClientResponseException e) {
+            status = e.getStatusCode().value();
+        } else if (error instanceof WebClientResponseException e) {
+            status = e.getStatusCode().value();
+        }
+        if (status >= 400 && status < 500) {
+            return "client_error";
+        }
+        // 5xx answers, timeouts and connection failures
+        return status >= 500 ? "server_error" : "io_error";
+    }
+}
@@ -0,0 +1,21 @@
+package com.library.auth_service.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Server configuration for the reactive profile
+ * Tomcat is on the classpath for the servlet stack and would otherwise be picked for the
+ * reactive stack as well, so Netty's event-loop server is selected explicitly.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+    
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -1,24 +1,94 @@
 package com.library.auth_service.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 
 /**
  * Configuration for RestTemplate to communicate with other services
+ * 
+ * Calls to user-service go through a pooled HTTP/1.1 keep-alive client, so logins reuse
+ * warm connections instead of opening one per request. Connect, read and pool-acquire
+ * timeouts are separate, so a stalled user-service cannot hold request threads for long
+ * and a saturated pool fails fast.
  */
 @Configuration
+@Profile("!reactive")
 public class RestTemplateConfig {
     
+    @Value("${user-service.client.max-connections:200}")
+    private int maxConnections;
+    
+    @Value("${user-service.client.max-connections-per-route:100}")
+    private int maxConnectionsPerRoute;
+    
+    @Value("${user-service.client.connect-timeout:2s}")
+    private Duration connectTimeout;
+    
+    @Value("${user-service.client.read-timeout:5s}")
+    private Duration readTimeout;
+    
+    @Value("${user-service.client.pool-acquire-timeout:1s}")
+    private Duration poolAcquireTimeout;
+    
+    @Value("${user-service.client.idle-timeout:30s}")
+    private Duration idleTimeout;
+    
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager userServiceConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        // Check connections that sat idle before reuse instead of failing the request
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+    
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient userServiceHttpClient(PoolingHttpClientConnectionManager userServiceConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(userServiceConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+    }
+    
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate userServiceRestTemplate(RestTemplateBuilder builder, CloseableHttpClient userServiceHttpClient) {
         return builder
-                .setConnectTimeout(Duration.ofSeconds(30))
-                .setReadTimeout(Duration.ofSeconds(30))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(userServiceHttpClient))
                 .build();
     }
+    
+    /**
+     * Publishes httpcomponents.httpclient.pool.* metrics (leased, available, pending, max) for the user-service pool
+     */
+    @Bean
+    public MeterBinder userServicePoolMetrics(PoolingHttpClientConnectionManager userServiceConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(userServiceConnectionManager, "user-service");
+    }
 }
-
@@ -0,0 +1,141 @@
+package com.library.auth_service.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead shared by the blocking and reactive user-service clients
+ *
+ * The breaker opens on a high failure or slow-call rate over a count-based sliding window,
+ * rejects calls immediately while open, and lets a few probe calls through once half-open.
+ * 4xx answers (bad credentials, duplicate user) mean user-service is healthy and are recorded as successes.
+ */
+@Configuration
+public class UserServiceResilienceConfig {
+    
+    public static final String USER_SERVICE = "userService";
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceResilienceConfig.class);
+    
+    @Value("${user-service.resilience.sliding-window-size:50}")
+    private int slidingWindowSize;
+    
+    @Value("${user-service.resilience.minimum-number-of-calls:20}")
+    private int minimumNumberOfCalls;
+    
+    @Value("${user-service.resilience.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+    
+    @Value("${user-service.resilience.slow-call-rate-threshold:80}")
+    private float slowCallRateThreshold;
+    
+    @Value("${user-service.resilience.slow-call-duration:2s}")
+    private Duration slowCallDuration;
+    
+    @Value("${user-service.resilience.open-state-duration:10s}")
+    private Duration openStateDuration;
+    
+    @Value("${user-service.resilience.half-open-calls:5}")
+    private int halfOpenCalls;
+    
+    @Value("${user-service.resilience.bulkhead-max-concurrent-calls:100}")
+    private int bulkheadMaxConcurrentCalls;
+    
+    @Value("${user-service.resilience.bulkhead-max-wait:0ms}")
+    private Duration bulkheadMaxWait;
+    
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .waitDurationInOpenState(openStateDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(UserServiceResilienceConfig::isUserServiceFailure)
+                .build();
+        return CircuitBreakerRegistry.of(config);
+    }
+    
+    @Bean
+    public BulkheadRegistry bulkheadRegistry() {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(bulkheadMaxConcurrentCalls)
+                .maxWaitDuration(bulkheadMaxWait)
+                .build();
+        return BulkheadRegistry.of(config);
+    }
+    
+    /**
+     * Logs state transitions and counts them as auth.user-service.circuit.transitions{from,to}
+     * The listener is registered here, once per breaker, rather than each time metrics are bound.
+     */
+    @Bean
+    public CircuitBreaker userServiceCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                    MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(USER_SERVICE);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            logger.warn("User service circuit breaker: {}", event.getStateTransition());
+            transitions(meterRegistry, event.getStateTransition()).increment();
+        });
+        return circuitBreaker;
+    }
+    
+    @Bean
+    public Bulkhead userServiceBulkhead(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.bulkhead(USER_SERVICE);
+    }
+    
+    /**
+     * Publishes resilience4j.circuitbreaker.* / resilience4j.bulkhead.* metrics, including the
+     * current breaker state
+     */
+    @Bean
+    public MeterBinder userServiceResilienceMetrics(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                    BulkheadRegistry bulkheadRegistry) {
+        return registry -> {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(registry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(registry);
+        };
+    }
+    
+    private static Counter transitions(MeterRegistry registry, CircuitBreaker.StateTransition transition) {
+        return Counter.builder("auth.user-service.circuit.transitions")
+                .description("User service circuit breaker state transitions")
+                .tag("from", transition.getFromState().name())
+                .tag("to", transition.getToState().name())
+                .register(registry);
+    }
+    
+    private static boolean isUserServiceFailure(Throwable e) {
+        if (e instanceof HttpClientErrorException) {
+            return false;
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            return !responseException.getStatusCode().is4xxClientError();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.auth_service.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the non-blocking user-service client used by the reactive profile
+ * Uses the same user-service.client.* pool and timeout settings as the blocking client.
+ */
+@Configuration
+@Profile("reactive")
+public class WebClientConfig {
+    
+    @Value("${user-service.url}")
+    private String userServiceUrl;
+    
+    @Value("${user-service.client.max-connections:200}")
+    private int maxConnections;
+    
+    @Value("${user-service.client.connect-timeout:2s}")
+    private Duration connectTimeout;
+    
+    @Value("${user-service.client.read-timeout:5s}")
+    private Duration readTimeout;
+    
+    @Value("${user-service.client.pool-acquire-timeout:1s}")
+    private Duration poolAcquireTimeout;
+    
+    @Value("${user-service.client.idle-timeout:30s}")
+    private Duration idleTimeout;
+    
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider userServiceConnectionProvider() {
+        return ConnectionProvider.builder("user-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(poolAcquireTimeout)
+                .maxIdleTime(idleTimeout)
+                .evictInBackground(idleTimeout)
+                // Publishes reactor.netty.connection.provider.* pool metrics
+                .metrics(true)
+                .build();
+    }
+    
+    @Bean
+    public WebClient userServiceWebClient(WebClient.Builder builder, ConnectionProvider userServiceConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(userServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return builder
+                .baseUrl(userServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
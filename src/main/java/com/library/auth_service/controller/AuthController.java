@@ -2,29 +2,43 @@ package com.library.auth_service.controller;
 
 import com.library.auth_service.dto.AuthResponse;
 import com.library.auth_service.dto.LoginRequest;
+import com.library.auth_service.dto.RefreshTokenRequest;
 import com.library.auth_service.dto.RegisterRequest;
+import com.library.auth_service.dto.RevokeTokenRequest;
 import com.library.auth_service.dto.TokenValidationResponse;
-import com.library.auth_service.security.JwtUtil;
 import com.library.auth_service.service.AuthService;
-import io.jsonwebtoken.Claims;
+import com.library.auth_service.service.TokenRefreshService;
+import com.library.auth_service.service.TokenRevocationService;
+import com.library.auth_service.service.TokenValidationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Controller for authentication endpoints
  */
 @RestController
 @RequestMapping("/api/auth")
+@Profile("!reactive")
 public class AuthController {
     
     private final AuthService authService;
-    private final JwtUtil jwtUtil;
+    private final TokenValidationService tokenValidationService;
+    private final TokenRefreshService tokenRefreshService;
+    private final TokenRevocationService tokenRevocationService;
     
-    public AuthController(AuthService authService, JwtUtil jwtUtil) {
+    public AuthController(AuthService authService, TokenValidationService tokenValidationService,
+                          TokenRefreshService tokenRefreshService, TokenRevocationService tokenRevocationService) {
         this.authService = authService;
-        this.jwtUtil = jwtUtil;
+        this.tokenValidationService = tokenValidationService;
+        this.tokenRefreshService = tokenRefreshService;
+        this.tokenRevocationService = tokenRevocationService;
     }
     
     /**
@@ -42,11 +56,42 @@ public class AuthController {
      * POST /api/auth/login
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        AuthResponse response = authService.login(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Exchange a refresh token for a new access token and refresh token
+     * POST /api/auth/refresh
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(tokenRefreshService.refresh(request.getRefreshToken()));
+    }
+    
+    /**
+     * Log out: revoke the bearer access token and, if given, the refresh token's session
+     * POST /api/auth/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest request) {
+        tokenRevocationService.logout(authorization, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Revoke a token, or (administrators only) a list of token ids
+     * POST /api/auth/revoke
+     */
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody RevokeTokenRequest request) {
+        tokenRevocationService.revoke(authorization, request);
+        return ResponseEntity.noContent().build();
+    }
+    
     /**
      * Validate JWT token
      * GET /api/auth/validate?token=...
@@ -54,29 +99,21 @@ public class AuthController {
      */
     @GetMapping("/validate")
     public ResponseEntity<TokenValidationResponse> validateToken(@RequestParam String token) {
-        try {
-            if (jwtUtil.validateToken(token)) {
-                Claims claims = jwtUtil.extractClaims(token);
-                String username = claims.getSubject();
-                String role = claims.get("role", String.class);
-                Long userId = claims.get("userId", Long.class);
-                
-                TokenValidationResponse response = new TokenValidationResponse(
-                    true, username, role, userId
-                );
-                return ResponseEntity.ok(response);
-            } else {
-                TokenValidationResponse response = new TokenValidationResponse(
-                    false, "Token is invalid or expired"
-                );
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-            }
-        } catch (Exception e) {
-            TokenValidationResponse response = new TokenValidationResponse(
-                false, "Token validation failed: " + e.getMessage()
-            );
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        TokenValidationResponse response = tokenValidationService.validate(token);
+        if (response.isValid()) {
+            return ResponseEntity.ok(response);
         }
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+    }
+    
+    /**
+     * Validate a batch of JWT tokens
+     * POST /api/auth/validate/batch
+     * Body is a JSON array of tokens, results are returned in the same order
+     */
+    @PostMapping("/validate/batch")
+    public ResponseEntity<List<TokenValidationResponse>> validateTokens(@RequestBody List<String> tokens) {
+        return ResponseEntity.ok(tokenValidationService.validateAll(tokens));
     }
     
     /**
@@ -0,0 +1,83 @@
+package com.library.auth_service.controller;
+
+import com.library.auth_service.security.TokenIntrospection;
+import com.library.auth_service.security.VerifiedToken;
+import com.library.auth_service.service.TokenValidationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Forward-auth check for the gateway (nginx auth_request, Traefik ForwardAuth and the like).
+ * The token comes from the Authorization header and the answer is carried by status and headers
+ * alone, so nothing is parsed or serialized as JSON. Serves both the servlet and the reactive stack.
+ *
+ * Answers are not cacheable unless auth.validation.forward-auth.cache-max-age is set. A proxy that
+ * caches them keeps admitting a token for up to that long after a logout, a revocation or a block.
+ */
+@RestController
+public class ForwardAuthController {
+    
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_NAME_HEADER = "X-User-Name";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+    
+    private final TokenValidationService tokenValidationService;
+    
+    @Value("${auth.validation.forward-auth.cache-max-age:0s}")
+    private Duration cacheMaxAge;
+    
+    public ForwardAuthController(TokenValidationService tokenValidationService) {
+        this.tokenValidationService = tokenValidationService;
+    }
+    
+    /**
+     * Validate the bearer token of a proxied request
+     * ANY /api/auth/forward-auth, as proxies keep the method of the original request
+     * 204 with X-User-Id, X-User-Name and X-User-Role, or 401; neither has a body.
+     */
+    @RequestMapping("/api/auth/forward-auth")
+    public ResponseEntity<Void> forwardAuth(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        TokenIntrospection introspection = tokenValidationService.validateBearer(authorization);
+        if (!introspection.isValid()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .cacheControl(CacheControl.noStore())
+                    .build();
+        }
+        VerifiedToken token = introspection.getToken();
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent()
+                .cacheControl(cacheControl(token))
+                .varyBy(HttpHeaders.AUTHORIZATION);
+        if (token.getUserId() != null) {
+            response.header(USER_ID_HEADER, token.getUserId().toString());
+        }
+        if (token.getUsername() != null) {
+            response.header(USER_NAME_HEADER, token.getUsername());
+        }
+        if (token.getRole() != null) {
+            response.header(USER_ROLE_HEADER, token.getRole());
+        }
+        return response.build();
+    }
+    
+    /**
+     * Cacheable for cache-max-age if set, but never past the token's expiry (rounded down to whole seconds)
+     */
+    private CacheControl cacheControl(VerifiedToken token) {
+        long remainingSeconds = (token.getExpiresAtMillis() - System.currentTimeMillis()) / 1000;
+        long maxAge = Math.min(cacheMaxAge.toSeconds(), remainingSeconds);
+        if (maxAge <= 0) {
+            return CacheControl.noStore();
+        }
+        // Shared caches only store answers to requests with an Authorization header when marked public
+        return CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic();
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.auth_service.controller;
+
+import com.library.auth_service.security.SigningKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller publishing the public signing keys
+ * Lets the gateway and other services verify tokens locally instead of calling /api/auth/validate
+ */
+@RestController
+public class JwksController {
+    
+    private final SigningKeyRing keyRing;
+    
+    @Value("${jwt.jwks.max-age:300}")
+    private long maxAgeSeconds;
+    
+    public JwksController(SigningKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+    
+    /**
+     * JSON Web Key Set
+     * GET /.well-known/jwks.json
+     * Clients may cache the set for max-age and revalidate with If-None-Match; a token with an
+     * unknown kid is the signal to refetch early after a key rotation.
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> jwks() {
+        List<Map<String, Object>> keys = keyRing.getPublicJwks();
+        String etag = "\"" + Integer.toHexString(keys.hashCode()) + "\"";
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic())
+                .eTag(etag)
+                .body(Map.of("keys", keys));
+    }
+}
@@ -0,0 +1,144 @@
+package com.library.auth_service.controller;
+
+import com.library.auth_service.dto.AuthResponse;
+import com.library.auth_service.dto.LoginRequest;
+import com.library.auth_service.dto.RefreshTokenRequest;
+import com.library.auth_service.dto.RegisterRequest;
+import com.library.auth_service.dto.RevokeTokenRequest;
+import com.library.auth_service.dto.TokenValidationResponse;
+import com.library.auth_service.service.ReactiveAuthService;
+import com.library.auth_service.service.TokenRefreshService;
+import com.library.auth_service.service.TokenRevocationService;
+import com.library.auth_service.service.TokenValidationService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Non-blocking controller for authentication endpoints (reactive profile)
+ * Same REST contract as AuthController
+ */
+@RestController
+@RequestMapping("/api/auth")
+@Profile("reactive")
+public class ReactiveAuthController {
+    
+    private final ReactiveAuthService authService;
+    private final TokenValidationService tokenValidationService;
+    private final TokenRefreshService tokenRefreshService;
+    private final TokenRevocationService tokenRevocationService;
+    
+    public ReactiveAuthController(ReactiveAuthService authService, TokenValidationService tokenValidationService,
+                                  TokenRefreshService tokenRefreshService,
+                                  TokenRevocationService tokenRevocationService) {
+        this.authService = authService;
+        this.tokenValidationService = tokenValidationService;
+        this.tokenRefreshService = tokenRefreshService;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+    
+    /**
+     * Register a new user
+     * POST /api/auth/register
+     */
+    @PostMapping("/register")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
+        return authService.register(request);
+    }
+    
+    /**
+     * Login user
+     * POST /api/auth/login
+     */
+    @PostMapping("/login")
+    public Mono<AuthResponse> login(@Valid @RequestBody LoginRequest request, ServerHttpRequest httpRequest) {
+        InetSocketAddress remoteAddress = httpRequest.getRemoteAddress();
+        String clientIp = remoteAddress != null ? remoteAddress.getHostString() : null;
+        return authService.login(request, clientIp);
+    }
+    
+    /**
+     * Exchange a refresh token for a new access token and refresh token
+     * POST /api/auth/refresh
+     * The refresh token store may append to its log file, so this runs off the event loop
+     */
+    @PostMapping("/refresh")
+    public Mono<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return Mono.fromCallable(() -> tokenRefreshService.refresh(request.getRefreshToken()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    /**
+     * Log out: revoke the bearer access token and, if given, the refresh token's session
+     * POST /api/auth/logout
+     */
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Void>> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                             @RequestBody(required = false) RefreshTokenRequest request) {
+        return Mono.fromCallable(() -> {
+                    tokenRevocationService.logout(authorization, request != null ? request.getRefreshToken() : null);
+                    return ResponseEntity.noContent().<Void>build();
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    /**
+     * Revoke a token, or (administrators only) a list of token ids
+     * POST /api/auth/revoke
+     */
+    @PostMapping("/revoke")
+    public Mono<ResponseEntity<Void>> revoke(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                             @RequestBody RevokeTokenRequest request) {
+        return Mono.fromCallable(() -> {
+                    tokenRevocationService.revoke(authorization, request);
+                    return ResponseEntity.noContent().<Void>build();
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    /**
+     * Validate JWT token
+     * GET /api/auth/validate?token=...
+     * Verification is CPU-only and cheap, so it runs on the event loop
+     */
+    @GetMapping("/validate")
+    public Mono<ResponseEntity<TokenValidationResponse>> validateToken(@RequestParam String token) {
+        return Mono.fromSupplier(() -> {
+            TokenValidationResponse response = tokenValidationService.validate(token);
+            if (response.isValid()) {
+                return ResponseEntity.ok(response);
+            }
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        });
+    }
+    
+    /**
+     * Validate a batch of JWT tokens
+     * POST /api/auth/validate/batch
+     * Runs off the event loop because the batch waits for its parallel workers
+     */
+    @PostMapping("/validate/batch")
+    public Mono<List<TokenValidationResponse>> validateTokens(@RequestBody List<String> tokens) {
+        return Mono.fromCallable(() -> tokenValidationService.validateAll(tokens))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    /**
+     * Health check endpoint
+     * GET /api/auth/health
+     */
+    @GetMapping("/health")
+    public Mono<String> health() {
+        return Mono.just("Auth Service is running!");
+    }
+}
@@ -3,6 +3,7 @@ package com.library.auth_service.dto;
 public class AuthResponse {
     
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private UserResponse user;
     
@@ -13,9 +14,18 @@ public class AuthResponse {
         this.user = user;
     }
     
+    public AuthResponse(String token, String refreshToken, UserResponse user) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.user = user;
+    }
+    
     public String getToken() { return token; }
     public void setToken(String token) { this.token = token; }
     
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
     
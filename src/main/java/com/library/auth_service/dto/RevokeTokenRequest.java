@@ -0,0 +1,20 @@
+package com.library.auth_service.dto;
+
+import java.util.List;
+
+public class RevokeTokenRequest {
+    
+    // An access or refresh token; holding it is enough to revoke it
+    private String token;
+    
+    // Token ids (jti) to revoke, only accepted from administrators
+    private List<String> tokenIds;
+    
+    public RevokeTokenRequest() {}
+    
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+    
+    public List<String> getTokenIds() { return tokenIds; }
+    public void setTokenIds(List<String> tokenIds) { this.tokenIds = tokenIds; }
+}
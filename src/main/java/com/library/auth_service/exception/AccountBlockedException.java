@@ -0,0 +1,11 @@
+package com.library.auth_service.exception;
+
+/**
+ * Exception thrown when valid credentials belong to an account that is restricted or rejected
+ * Handled like any other AuthenticationException
+ */
+public class AccountBlockedException extends AuthenticationException {
+    public AccountBlockedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.library.auth_service.exception;
+
+/**
+ * Exception thrown when an authenticated caller is not allowed to perform an operation
+ */
+public class ForbiddenException extends RuntimeException {
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
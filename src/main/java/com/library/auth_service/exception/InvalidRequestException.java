@@ -0,0 +1,10 @@
+package com.library.auth_service.exception;
+
+/**
+ * Exception thrown when a request is well-formed but cannot be accepted
+ */
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
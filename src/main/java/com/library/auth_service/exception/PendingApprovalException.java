@@ -0,0 +1,11 @@
+package com.library.auth_service.exception;
+
+/**
+ * Exception thrown when valid credentials belong to an account that is still pending approval
+ * Handled like any other AuthenticationException
+ */
+public class PendingApprovalException extends AuthenticationException {
+    public PendingApprovalException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.library.auth_service.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a client is rate limited or locked out
+ */
+public class TooManyRequestsException extends RuntimeException {
+    private final Duration retryAfter;
+    
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
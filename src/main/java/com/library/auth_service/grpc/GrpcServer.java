@@ -0,0 +1,109 @@
+package com.library.auth_service.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plaintext HTTP/2 gRPC server for internal services, on its own port next to the web server
+ *
+ * Serves TokenValidationGrpcService. Calls run directly on the transport's event loop threads:
+ * validation is CPU-only and never blocks, so handing each call to an executor would only add a
+ * thread switch. Clients are expected to keep one connection open and multiplex their calls on it,
+ * so keep-alive pings from them are allowed down to permit-keep-alive-time, even between calls.
+ */
+@Component
+public class GrpcServer implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServer.class);
+    
+    private final TokenValidationGrpcService tokenValidationService;
+    private volatile Server server;
+    
+    @Value("${grpc.server.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${grpc.server.port:9002}")
+    private int port;
+    
+    @Value("${grpc.server.max-inbound-message-size:64KB}")
+    private DataSize maxInboundMessageSize;
+    
+    @Value("${grpc.server.max-concurrent-calls-per-connection:1000}")
+    private int maxConcurrentCallsPerConnection;
+    
+    @Value("${grpc.server.permit-keep-alive-time:30s}")
+    private Duration permitKeepAliveTime;
+    
+    @Value("${grpc.server.shutdown-timeout:5s}")
+    private Duration shutdownTimeout;
+    
+    public GrpcServer(TokenValidationGrpcService tokenValidationService) {
+        this.tokenValidationService = tokenValidationService;
+    }
+    
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Server created = NettyServerBuilder.forPort(port)
+                .addService(tokenValidationService)
+                .directExecutor()
+                .maxInboundMessageSize((int) maxInboundMessageSize.toBytes())
+                .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection)
+                .permitKeepAliveTime(permitKeepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .permitKeepAliveWithoutCalls(true)
+                .build();
+        try {
+            created.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start the gRPC server on port " + port, e);
+        }
+        server = created;
+        logger.info("gRPC server started on port {}", created.getPort());
+    }
+    
+    /**
+     * Stop taking calls; those in flight, open streams included, get up to shutdown-timeout before they are cancelled
+     */
+    @Override
+    public void stop() {
+        Server current = server;
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+    
+    /**
+     * Port actually bound, which differs from grpc.server.port when that is 0; -1 when not running
+     */
+    public int getPort() {
+        Server current = server;
+        return current != null ? current.getPort() : -1;
+    }
+}
@@ -0,0 +1,147 @@
+package com.library.auth_service.grpc;
+
+import com.library.auth_service.grpc.proto.TokenStatus;
+import com.library.auth_service.grpc.proto.TokenValidationGrpc;
+import com.library.auth_service.grpc.proto.ValidateRequest;
+import com.library.auth_service.grpc.proto.ValidateResponse;
+import com.library.auth_service.security.TokenIntrospection;
+import com.library.auth_service.security.TokenIntrospection.Status;
+import com.library.auth_service.security.VerifiedToken;
+import com.library.auth_service.service.TokenValidationService;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * gRPC counterpart of GET /api/auth/validate, served by GrpcServer
+ *
+ * Both RPCs go through TokenValidationService, so tokens get the same checks, metrics and audit events
+ * as over REST. ValidateStream answers each request in order as it arrives, and only reads the next
+ * request once the client keeps up with the answers, so a slow reader cannot pile them up in memory.
+ */
+@Component
+public class TokenValidationGrpcService extends TokenValidationGrpc.TokenValidationImplBase {
+    
+    // Answers for rejected tokens only differ by correlation id, so they are built once
+    private static final Map<Status, ValidateResponse> FAILURES = new EnumMap<>(Status.class);
+    
+    static {
+        for (Status status : Status.values()) {
+            if (status != Status.VALID) {
+                FAILURES.put(status, ValidateResponse.newBuilder()
+                        .setStatus(toTokenStatus(status))
+                        .setMessage(status.getMessage())
+                        .build());
+            }
+        }
+    }
+    
+    private final TokenValidationService tokenValidationService;
+    
+    public TokenValidationGrpcService(TokenValidationService tokenValidationService) {
+        this.tokenValidationService = tokenValidationService;
+    }
+    
+    @Override
+    public void validate(ValidateRequest request, StreamObserver<ValidateResponse> responseObserver) {
+        responseObserver.onNext(validate(request));
+        responseObserver.onCompleted();
+    }
+    
+    @Override
+    public StreamObserver<ValidateRequest> validateStream(StreamObserver<ValidateResponse> responseObserver) {
+        ServerCallStreamObserver<ValidateResponse> responses = (ServerCallStreamObserver<ValidateResponse>) responseObserver;
+        ValidationStream stream = new ValidationStream(responses);
+        responses.disableAutoRequest();
+        responses.setOnReadyHandler(stream::onReady);
+        return stream;
+    }
+    
+    private ValidateResponse validate(ValidateRequest request) {
+        // An unset proto3 string is empty, which is a missing token here
+        String token = request.getToken().isEmpty() ? null : request.getToken();
+        TokenIntrospection introspection = tokenValidationService.validateToken(token);
+        long correlationId = request.getCorrelationId();
+        if (!introspection.isValid()) {
+            ValidateResponse failure = FAILURES.get(introspection.getStatus());
+            return correlationId == 0 ? failure : failure.toBuilder().setCorrelationId(correlationId).build();
+        }
+        VerifiedToken verified = introspection.getToken();
+        ValidateResponse.Builder response = ValidateResponse.newBuilder()
+                .setValid(true)
+                .setStatus(TokenStatus.TOKEN_STATUS_VALID)
+                .setMessage(introspection.getMessage())
+                .setExpiresAtMillis(verified.getExpiresAtMillis())
+                .setCorrelationId(correlationId);
+        // Protobuf setters reject null, and an absent claim is simply left unset
+        if (verified.getUserId() != null) {
+            response.setUserId(verified.getUserId());
+        }
+        if (verified.getUsername() != null) {
+            response.setUsername(verified.getUsername());
+        }
+        if (verified.getRole() != null) {
+            response.setRole(verified.getRole());
+        }
+        return response.build();
+    }
+    
+    private static TokenStatus toTokenStatus(Status status) {
+        return switch (status) {
+            case VALID -> TokenStatus.TOKEN_STATUS_VALID;
+            case MISSING -> TokenStatus.TOKEN_STATUS_MISSING;
+            case MALFORMED -> TokenStatus.TOKEN_STATUS_MALFORMED;
+            case UNKNOWN_KEY -> TokenStatus.TOKEN_STATUS_UNKNOWN_KEY;
+            case INVALID_SIGNATURE -> TokenStatus.TOKEN_STATUS_INVALID_SIGNATURE;
+            case NOT_YET_VALID -> TokenStatus.TOKEN_STATUS_NOT_YET_VALID;
+            case EXPIRED -> TokenStatus.TOKEN_STATUS_EXPIRED;
+            case REVOKED -> TokenStatus.TOKEN_STATUS_REVOKED;
+            case USER_BLOCKED -> TokenStatus.TOKEN_STATUS_USER_BLOCKED;
+        };
+    }
+    
+    /**
+     * One ValidateStream call; gRPC delivers its callbacks one at a time
+     * The next request is asked for after each answer while the client is reading, or else once it
+     * is ready again (manual flow control).
+     */
+    private final class ValidationStream implements StreamObserver<ValidateRequest> {
+        
+        private final ServerCallStreamObserver<ValidateResponse> responses;
+        private boolean requested;
+        
+        ValidationStream(ServerCallStreamObserver<ValidateResponse> responses) {
+            this.responses = responses;
+        }
+        
+        void onReady() {
+            if (responses.isReady() && !requested) {
+                requested = true;
+                responses.request(1);
+            }
+        }
+        
+        @Override
+        public void onNext(ValidateRequest request) {
+            responses.onNext(validate(request));
+            if (responses.isReady()) {
+                responses.request(1);
+            } else {
+                requested = false;
+            }
+        }
+        
+        @Override
+        public void onError(Throwable t) {
+            // The client cancelled or the connection broke; the call is already closed
+        }
+        
+        @Override
+        public void onCompleted() {
+            responses.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.library.auth_service.logging;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Keeps the console appenders included by logback-spring.xml in the native image
+ */
+public class LoggingRuntimeHints implements RuntimeHintsRegistrar {
+    
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern("logging/console-*.xml");
+    }
+}
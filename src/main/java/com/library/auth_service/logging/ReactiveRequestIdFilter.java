@@ -0,0 +1,38 @@
+package com.library.auth_service.logging;
+
+import io.micrometer.context.ContextRegistry;
+import org.slf4j.MDC;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Reactive counterpart of RequestIdFilter
+ * The id travels in the Reactor context and is restored into the MDC on whichever thread runs the
+ * request next (spring.reactor.context-propagation=auto).
+ */
+@Component
+@Profile("reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveRequestIdFilter implements WebFilter {
+    
+    public ReactiveRequestIdFilter() {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(RequestIds.MDC_KEY,
+                () -> MDC.get(RequestIds.MDC_KEY),
+                requestId -> MDC.put(RequestIds.MDC_KEY, requestId),
+                () -> MDC.remove(RequestIds.MDC_KEY));
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String requestId = RequestIds.resolve(exchange.getRequest().getHeaders().getFirst(RequestIds.HEADER));
+        exchange.getResponse().getHeaders().set(RequestIds.HEADER, requestId);
+        return chain.filter(exchange).contextWrite(Context.of(RequestIds.MDC_KEY, requestId));
+    }
+}
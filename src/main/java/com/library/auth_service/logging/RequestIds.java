@@ -0,0 +1,29 @@
+package com.library.auth_service.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Request id carried in the X-Request-Id header and the logging MDC
+ */
+public final class RequestIds {
+    
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+    
+    // Ids from the gateway are reused only if they are short and cannot break the log format
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+    
+    private RequestIds() {}
+    
+    /**
+     * The incoming id if it is acceptable, otherwise a new random one
+     */
+    public static String resolve(String incoming) {
+        if (incoming != null && VALID.matcher(incoming).matches()) {
+            return incoming;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Long.toHexString(random.nextLong() | Long.MIN_VALUE) + Long.toHexString(random.nextLong() | Long.MIN_VALUE);
+    }
+}
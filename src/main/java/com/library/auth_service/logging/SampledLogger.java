@@ -0,0 +1,80 @@
+package com.library.auth_service.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs at most maxPerInterval messages per interval for one kind of repetitive event
+ *
+ * Further messages are only counted. The first message of a later interval is preceded by a
+ * summary of how many were suppressed, so a burst of failed logins costs a few lines instead of
+ * one per request. The limit is approximate while an interval rolls over.
+ */
+public final class SampledLogger {
+    
+    private final Logger logger;
+    private final String description;
+    private final int maxPerInterval;
+    private final long intervalMillis;
+    private final AtomicLong interval = new AtomicLong();
+    private final AtomicInteger logged = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+    
+    /**
+     * @param description what is being suppressed, for the summary line (e.g. "authentication failures")
+     */
+    public SampledLogger(Logger logger, String description, int maxPerInterval, Duration interval) {
+        this.logger = logger;
+        this.description = description;
+        this.maxPerInterval = maxPerInterval;
+        this.intervalMillis = interval.toMillis();
+    }
+    
+    public void info(String format, Object... arguments) {
+        log(Level.INFO, format, arguments);
+    }
+    
+    public void warn(String format, Object... arguments) {
+        log(Level.WARN, format, arguments);
+    }
+    
+    public void error(String format, Object... arguments) {
+        log(Level.ERROR, format, arguments);
+    }
+    
+    private void log(Level level, String format, Object... arguments) {
+        if (!logger.isEnabledForLevel(level)) {
+            return;
+        }
+        long current = System.currentTimeMillis() / intervalMillis;
+        long previous = interval.get();
+        if (current != previous && interval.compareAndSet(previous, current)) {
+            logged.set(0);
+            long count = suppressed.sumThenReset();
+            if (count > 0) {
+                write(level, "Suppressed {} {} since the last summary", count, description);
+            }
+        }
+        if (logged.incrementAndGet() <= maxPerInterval) {
+            write(level, format, arguments);
+        } else {
+            suppressed.increment();
+        }
+    }
+    
+    /**
+     * Plain Logger methods rather than the fluent API, so a trailing exception argument keeps its stack trace
+     */
+    private void write(Level level, String format, Object... arguments) {
+        switch (level) {
+            case ERROR -> logger.error(format, arguments);
+            case WARN -> logger.warn(format, arguments);
+            default -> logger.info(format, arguments);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.library.auth_service.security;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loading, generation and JWK encoding of the asymmetric signing keys (ES256 and EdDSA/Ed25519)
+ */
+final class AsymmetricKeys {
+    
+    static final String ES256 = "ES256";
+    static final String EDDSA = "EdDSA";
+    
+    /**
+     * Length of a JWS signature for both algorithms (R || S for ES256, raw signature for Ed25519)
+     */
+    static final int SIGNATURE_LENGTH = 64;
+    
+    private static final int P256_COORDINATE_LENGTH = 32;
+    private static final int ED25519_KEY_LENGTH = 32;
+    
+    private AsymmetricKeys() {}
+    
+    static boolean isSupported(String algorithm) {
+        return ES256.equals(algorithm) || EDDSA.equals(algorithm);
+    }
+    
+    /**
+     * JCA signature algorithm producing the raw signature format used by JWS
+     */
+    static String signatureAlgorithm(String algorithm) {
+        return ES256.equals(algorithm) ? "SHA256withECDSAinP1363Format" : "Ed25519";
+    }
+    
+    static KeyPair generate(String algorithm) {
+        try {
+            if (ES256.equals(algorithm)) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                return generator.generateKeyPair();
+            }
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot generate " + algorithm + " key pair", e);
+        }
+    }
+    
+    /**
+     * Read a PKCS#8 "PRIVATE KEY" PEM file
+     */
+    static PrivateKey readPrivateKey(Path path, String algorithm) {
+        try {
+            return keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(readPem(path)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " private key in " + path, e);
+        }
+    }
+    
+    /**
+     * Read an X.509 "PUBLIC KEY" PEM file
+     */
+    static PublicKey readPublicKey(Path path, String algorithm) {
+        try {
+            PublicKey key = keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(readPem(path)));
+            if (key instanceof ECPublicKey ecKey
+                    && ecKey.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalStateException("ES256 requires a P-256 key: " + path);
+            }
+            return key;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " public key in " + path, e);
+        }
+    }
+    
+    /**
+     * Public JWK (RFC 7517) of a key, never containing private material
+     */
+    static Map<String, Object> toJwk(String kid, String algorithm, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>(requiredMembers(publicKey));
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm);
+        return Collections.unmodifiableMap(jwk);
+    }
+    
+    /**
+     * JWK thumbprint (RFC 7638), used as the key id of asymmetric keys
+     */
+    static String thumbprint(PublicKey publicKey) {
+        // Required members in lexicographic order, no whitespace
+        StringBuilder json = new StringBuilder("{");
+        requiredMembers(publicKey).forEach((name, value) -> {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(name).append("\":\"").append(value).append('"');
+        });
+        json.append('}');
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json.toString().getBytes(StandardCharsets.UTF_8));
+            return base64Url(hash);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private static Map<String, String> requiredMembers(PublicKey publicKey) {
+        Map<String, String> members = new LinkedHashMap<>();
+        if (publicKey instanceof ECPublicKey ecKey) {
+            members.put("crv", "P-256");
+            members.put("kty", "EC");
+            members.put("x", base64Url(unsigned(ecKey.getW().getAffineX(), P256_COORDINATE_LENGTH)));
+            members.put("y", base64Url(unsigned(ecKey.getW().getAffineY(), P256_COORDINATE_LENGTH)));
+        } else {
+            // X.509 SubjectPublicKeyInfo of an Ed25519 key ends with the raw 32-byte key
+            byte[] encoded = publicKey.getEncoded();
+            members.put("crv", "Ed25519");
+            members.put("kty", "OKP");
+            members.put("x", base64Url(Arrays.copyOfRange(encoded, encoded.length - ED25519_KEY_LENGTH, encoded.length)));
+        }
+        return members;
+    }
+    
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        byte[] out = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, out, length - copy, copy);
+        return out;
+    }
+    
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    private static KeyFactory keyFactory(String algorithm) throws GeneralSecurityException {
+        return KeyFactory.getInstance(ES256.equals(algorithm) ? "EC" : "Ed25519");
+    }
+    
+    private static byte[] readPem(Path path) {
+        try {
+            String pem = Files.readString(path, StandardCharsets.US_ASCII);
+            String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+            return Base64.getDecoder().decode(base64);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot read PEM file " + path, e);
+        }
+    }
+}
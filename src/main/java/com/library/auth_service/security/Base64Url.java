@@ -0,0 +1,86 @@
+package com.library.auth_service.security;
+
+/**
+ * Unpadded Base64URL decoding and encoding of token segments.
+ * Works directly on a range of the token string and reports bad input by returning null
+ * instead of throwing, so rejecting garbage tokens does not build exception stack traces.
+ * Encoding writes straight into the caller's buffer for the token minter.
+ */
+final class Base64Url {
+    
+    private static final byte[] ENCODE =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+    private static final int[] DECODE = new int[128];
+    
+    static {
+        java.util.Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ENCODE.length; i++) {
+            DECODE[ENCODE[i]] = i;
+        }
+    }
+    
+    private Base64Url() {}
+    
+    /**
+     * Decode chars [from, to) of the input, or return null if they are not valid unpadded Base64URL
+     */
+    static byte[] decode(String input, int from, int to) {
+        int length = to - from;
+        if (length <= 0 || length % 4 == 1) {
+            return null;
+        }
+        byte[] out = new byte[length * 3 / 4];
+        int outPos = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            char c = input.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                return null;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[outPos++] = (byte) (bits >> bitCount);
+            }
+        }
+        return out;
+    }
+    
+    /**
+     * Number of chars the unpadded encoding of length bytes takes
+     */
+    static int encodedLength(int length) {
+        return (length * 4 + 2) / 3;
+    }
+    
+    /**
+     * Encode bytes [from, from + length) of src into dst at dstPos and return the position after the last char
+     */
+    static int encode(byte[] src, int from, int length, byte[] dst, int dstPos) {
+        int i = from;
+        int end = from + length;
+        while (end - i >= 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dst[dstPos++] = ENCODE[bits >>> 18];
+            dst[dstPos++] = ENCODE[(bits >>> 12) & 0x3f];
+            dst[dstPos++] = ENCODE[(bits >>> 6) & 0x3f];
+            dst[dstPos++] = ENCODE[bits & 0x3f];
+            i += 3;
+        }
+        int remaining = end - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xff) << 16;
+            dst[dstPos++] = ENCODE[bits >>> 18];
+            dst[dstPos++] = ENCODE[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dst[dstPos++] = ENCODE[bits >>> 18];
+            dst[dstPos++] = ENCODE[(bits >>> 12) & 0x3f];
+            dst[dstPos++] = ENCODE[(bits >>> 6) & 0x3f];
+        }
+        return dstPos;
+    }
+}
@@ -0,0 +1,73 @@
+package com.library.auth_service.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size bound and eviction count of an in-memory cache map.
+ * Once a put takes the map past its maximum size, expired entries are dropped first, then
+ * arbitrary ones down to 90% of the maximum, so that a full cache does not run an eviction pass
+ * on every put. Only one thread evicts at a time; others skip the pass.
+ */
+final class CacheEvictor<K, V> {
+    
+    /**
+     * Whether a cached value has expired at the given time
+     */
+    interface Expiry<V> {
+        boolean isExpired(V value, long nowMillis);
+    }
+    
+    private final Map<K, V> entries;
+    private final Expiry<V> expiry;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder evictions = new LongAdder();
+    
+    CacheEvictor(Map<K, V> entries, Expiry<V> expiry) {
+        this.entries = entries;
+        this.expiry = expiry;
+    }
+    
+    /**
+     * Remove an entry found stale on lookup, counted unless another thread removed it first
+     */
+    void remove(K key, V value) {
+        if (entries.remove(key, value)) {
+            evictions.increment();
+        }
+    }
+    
+    /**
+     * Bring the map back under maxSize after a put
+     */
+    void trim(int maxSize) {
+        if (entries.size() <= maxSize || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                if (expiry.isExpired(it.next().getValue(), now)) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            int lowWaterMark = maxSize - maxSize / 10;
+            it = entries.entrySet().iterator();
+            while (entries.size() > lowWaterMark && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    long getEvictions() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,190 @@
+package com.library.auth_service.security;
+
+import com.library.auth_service.dto.UserResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in cache of recently verified logins, so that a repeat login within the TTL is checked
+ * locally instead of by user-service.
+ *
+ * Each entry holds a salted PBKDF2 verifier of the password (never the password itself) and the
+ * user returned by the last successful check. A wrong password for a cached username drops the
+ * entry, as does any failed login reported by the caller. Entries expire after the TTL and the
+ * cache is bounded in size. Within the TTL a password change or a deactivation in user-service is
+ * not noticed, so keep it short.
+ */
+@Component
+public class CredentialCache implements MeterBinder {
+    
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final CacheEvictor<String, Entry> evictor = new CacheEvictor<>(entries, Entry::isExpired);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    
+    @Value("${auth.login.credential-cache.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${auth.login.credential-cache.ttl:5m}")
+    private Duration ttl;
+    
+    @Value("${auth.login.credential-cache.max-size:10000}")
+    private int maxSize;
+    
+    @Value("${auth.login.credential-cache.iterations:20000}")
+    private int iterations;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Return the cached user if the password matches its verifier, or null to ask user-service
+     * A password that does not match drops the entry.
+     */
+    public UserResponse verify(String username, String password) {
+        if (!enabled || username == null || password == null) {
+            return null;
+        }
+        String key = key(username);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            evictor.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        if (!entry.username.equals(username)
+                || !MessageDigest.isEqual(entry.verifier, hash(password, entry.salt))) {
+            entries.remove(key, entry);
+            mismatches.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.user;
+    }
+    
+    /**
+     * Remember a login that user-service has just accepted
+     */
+    public void put(String username, String password, UserResponse user) {
+        if (!enabled || username == null || password == null || user == null) {
+            return;
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Entry entry = new Entry(username, salt, hash(password, salt), user,
+                System.currentTimeMillis() + ttl.toMillis());
+        entries.put(key(username), entry);
+        evictor.trim(maxSize);
+    }
+    
+    /**
+     * Forget a username after a failed login, whatever the case it was typed in
+     */
+    public void invalidate(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        entries.remove(key(username));
+    }
+    
+    public int size() { return entries.size(); }
+    
+    public long getHits() { return hits.sum(); }
+    
+    public long getMisses() { return misses.sum(); }
+    
+    public long getMismatches() { return mismatches.sum(); }
+    
+    public long getEvictions() { return evictor.getEvictions(); }
+    
+    /**
+     * Usernames are keyed case-insensitively like the rate limiter, so a failure with any spelling
+     * clears the entry; a hit still needs the exact username that user-service accepted
+     */
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+    
+    private byte[] hash(String password, byte[] salt) {
+        char[] chars = password.toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.login.cache.gets", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Logins by credential cache result")
+                .register(registry);
+        FunctionCounter.builder("auth.login.cache.gets", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Logins by credential cache result")
+                .register(registry);
+        FunctionCounter.builder("auth.login.cache.gets", mismatches, LongAdder::sum)
+                .tag("result", "mismatch")
+                .description("Logins by credential cache result")
+                .register(registry);
+        FunctionCounter.builder("auth.login.cache.evictions", evictor, CacheEvictor::getEvictions)
+                .description("Entries removed from the credential cache because of size or expiry")
+                .register(registry);
+        Gauge.builder("auth.login.cache.size", entries, Map::size)
+                .description("Number of logins currently held in the credential cache")
+                .register(registry);
+    }
+    
+    private static final class Entry {
+        
+        private final String username;
+        private final byte[] salt;
+        private final byte[] verifier;
+        private final UserResponse user;
+        private final long expiresAtMillis;
+        
+        Entry(String username, byte[] salt, byte[] verifier, UserResponse user, long expiresAtMillis) {
+            this.username = username;
+            this.salt = salt;
+            this.verifier = verifier;
+            this.user = user;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+        
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -1,53 +1,53 @@
 package com.library.auth_service.security;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.library.auth_service.security.TokenIntrospection.Status;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Utility class for JWT token operations
  * Handles token generation and validation
  */
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
     
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    private final SigningKeyRing keyRing;
+    private final RevokedTokenStore revokedTokens;
+    private final TokenMinter minter = new TokenMinter();
+    private final LongAdder minted = new LongAdder();
     
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    /**
-     * Generate secret key from the configured secret
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtil(SigningKeyRing keyRing, RevokedTokenStore revokedTokens) {
+        this.keyRing = keyRing;
+        this.revokedTokens = revokedTokens;
     }
     
     /**
-     * Generate JWT token for a user
+     * Generate JWT token for a user, signed with the active key of the key ring
+     * Each token gets a unique id (jti) so that it can be revoked individually
+     * Minted by TokenMinter, which writes the same claims JJWT would without its builder overhead
      */
     public String generateToken(String username, String role, Long userId) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("role", role);
-        claims.put("userId", userId);
-        
-        return Jwts.builder()
-                .claims(claims)
-                .subject(username)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
-                .compact();
+        SigningKey signingKey = keyRing.getActiveKey();
+        minted.increment();
+        long now = System.currentTimeMillis();
+        return minter.mint(signingKey, username, role, userId, now, now + expiration);
     }
     
     /**
@@ -72,12 +72,10 @@ public class JwtUtil {
     }
     
     /**
-     * Extract all claims from token
+     * Extract all claims from token using the cached parser of the key named in its header
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return keyRing.keyFor(token).getParser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
@@ -101,12 +99,7 @@ public class JwtUtil {
      * Validate token without username check (for gateway validation)
      */
     public boolean validateToken(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            return !claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return false;
-        }
+        return introspect(token).isValid();
     }
     
     /**
@@ -119,4 +112,129 @@ public class JwtUtil {
             throw new RuntimeException("Invalid token", e);
         }
     }
+    
+    /**
+     * Verify token signature, expiry and revocation once and return its claims or the reason it was rejected.
+     * Rejections are reported through the result instead of exceptions, so floods of
+     * invalid tokens do not pay for building stack traces.
+     */
+    public TokenIntrospection introspect(String token) {
+        if (token == null || token.isBlank()) {
+            return TokenIntrospection.failure(Status.MISSING);
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return TokenIntrospection.failure(Status.MALFORMED);
+        }
+        
+        byte[] header = Base64Url.decode(token, 0, headerEnd);
+        byte[] payload = Base64Url.decode(token, headerEnd + 1, payloadEnd);
+        byte[] signature = Base64Url.decode(token, payloadEnd + 1, token.length());
+        if (header == null || payload == null || signature == null) {
+            return TokenIntrospection.failure(Status.MALFORMED);
+        }
+        
+        String headerJson = new String(header, StandardCharsets.UTF_8);
+        String kid = headerValue(headerJson, "kid");
+        SigningKey key = keyRing.resolve(kid);
+        if (key == null) {
+            return TokenIntrospection.failure(Status.UNKNOWN_KEY);
+        }
+        // Only the algorithm of the resolved key is accepted, which rules out "none" and algorithm confusion
+        if (!key.getAlgorithm().equals(headerValue(headerJson, "alg"))) {
+            return TokenIntrospection.failure(Status.INVALID_SIGNATURE);
+        }
+        // All chars were checked to be Base64URL, so the ASCII bytes are exactly the signing input
+        if (!key.verify(token.getBytes(StandardCharsets.US_ASCII), payloadEnd, signature)) {
+            return TokenIntrospection.failure(Status.INVALID_SIGNATURE);
+        }
+        
+        TokenIntrospection introspection = readClaims(payload, kid, System.currentTimeMillis());
+        if (introspection.isValid() && revokedTokens.isRevoked(introspection.getToken().getTokenId())) {
+            return TokenIntrospection.failure(Status.REVOKED);
+        }
+        return introspection;
+    }
+    
+    /**
+     * Read the claims of a payload whose signature has been verified
+     */
+    private TokenIntrospection readClaims(byte[] payload, String kid, long nowMillis) {
+        String subject = null;
+        String role = null;
+        Long userId = null;
+        String tokenId = null;
+        long expiresAt = -1;
+        long notBefore = -1;
+        
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return TokenIntrospection.failure(Status.MALFORMED);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "sub" -> subject = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "role" -> role = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "userId" -> userId = value.isNumeric() ? parser.getLongValue() : null;
+                    case "jti" -> tokenId = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "exp" -> expiresAt = value.isNumeric() ? parser.getLongValue() * 1000 : -1;
+                    case "nbf" -> notBefore = value.isNumeric() ? parser.getLongValue() * 1000 : -1;
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            // Only reachable for payloads we signed ourselves, never for forged tokens
+            return TokenIntrospection.failure(Status.MALFORMED);
+        }
+        
+        if (expiresAt < 0) {
+            return TokenIntrospection.failure(Status.MALFORMED);
+        }
+        if (nowMillis > expiresAt) {
+            return TokenIntrospection.failure(Status.EXPIRED);
+        }
+        if (notBefore >= 0 && nowMillis < notBefore) {
+            return TokenIntrospection.failure(Status.NOT_YET_VALID);
+        }
+        return TokenIntrospection.valid(new VerifiedToken(subject, role, userId, tokenId, expiresAt, kid));
+    }
+    
+    /**
+     * Read a string member of the (not yet verified) header JSON, or null if absent.
+     * A lenient scan is enough because the header is covered by the signature check.
+     * Also used by SigningKeyRing, so both read the kid of a token the same way.
+     */
+    static String headerValue(String json, String name) {
+        int at = json.indexOf("\"" + name + "\"");
+        if (at < 0) {
+            return null;
+        }
+        int i = at + name.length() + 2;
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        if (i >= json.length() || json.charAt(i) != ':') {
+            return null;
+        }
+        i++;
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        if (i >= json.length() || json.charAt(i) != '"') {
+            return null;
+        }
+        int end = json.indexOf('"', i + 1);
+        return end < 0 ? null : json.substring(i + 1, end);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.tokens.minted", minted, LongAdder::sum)
+                .tag("type", "access")
+                .description("Tokens issued by this instance")
+                .register(registry);
+    }
 }
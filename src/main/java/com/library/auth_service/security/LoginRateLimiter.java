@@ -0,0 +1,388 @@
+package com.library.auth_service.security;
+
+import com.library.auth_service.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory limiter for login attempts, keyed by username and by client IP.
+ *
+ * Attempts are counted in a sliding window (previous and current fixed window, weighted by
+ * overlap) and repeated failed logins lock the key out for a while. Rejected attempts throw
+ * TooManyRequestsException before user-service is called. Each key only locks its own small
+ * counter, the number of tracked keys is bounded and idle keys are swept periodically.
+ *
+ * When the limiter is full, a new key takes the place of the least recently seen counter from a
+ * small sample, skipping counters that are locked out or still have failures that count. If none
+ * can go, a new client IP is rejected, so a flood of IPs fails closed instead of slipping past the
+ * limits untracked. A new username is admitted untracked instead: usernames cost an attacker nothing,
+ * and rejecting them would let a spray of failed logins over random names lock out every user
+ * without a counter. Such attempts are still limited by their client IP.
+ *
+ * An attempt counts against its username and its IP only if both admit it, so an IP that is over
+ * its limit does not use up the budget of the usernames it tries.
+ */
+@Component
+public class LoginRateLimiter implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+    
+    // Counters looked at to find one to evict when the limiter is full
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+    
+    @Value("${auth.login.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${auth.login.rate-limit.window:1m}")
+    private Duration window;
+    
+    @Value("${auth.login.rate-limit.max-attempts-per-username:10}")
+    private int maxAttemptsPerUsername;
+    
+    @Value("${auth.login.rate-limit.max-attempts-per-ip:100}")
+    private int maxAttemptsPerIp;
+    
+    @Value("${auth.login.rate-limit.max-failures-per-username:5}")
+    private int maxFailuresPerUsername;
+    
+    @Value("${auth.login.rate-limit.max-failures-per-ip:50}")
+    private int maxFailuresPerIp;
+    
+    @Value("${auth.login.rate-limit.lockout-duration:15m}")
+    private Duration lockoutDuration;
+    
+    @Value("${auth.login.rate-limit.max-keys:100000}")
+    private int maxKeys;
+    
+    @Value("${auth.login.rate-limit.sweep-interval:1m}")
+    private Duration sweepInterval;
+    
+    private KeyedCounters usernames;
+    private KeyedCounters ips;
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder lockedOut = new LongAdder();
+    private final LongAdder untrackedUsernames = new LongAdder();
+    private final LongAdder untrackedIps = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    @PostConstruct
+    void init() {
+        usernames = new KeyedCounters(maxAttemptsPerUsername, maxFailuresPerUsername, untrackedUsernames, false);
+        ips = new KeyedCounters(maxAttemptsPerIp, maxFailuresPerIp, untrackedIps, true);
+        nextSweep.set(System.currentTimeMillis() + sweepInterval.toMillis());
+    }
+    
+    /**
+     * Count a login attempt, or reject it if the username or client IP is locked out or over its rate
+     */
+    public void acquire(String username, String clientIp) {
+        acquire(username, clientIp, System.currentTimeMillis());
+    }
+    
+    void acquire(String username, String clientIp, long now) {
+        if (!enabled) {
+            return;
+        }
+        sweepIfDue(now);
+        Counter usernameCounter = usernames.acquire(usernameKey(username), now);
+        if (clientIp == null) {
+            return;
+        }
+        try {
+            ips.acquire(clientIp, now);
+        } catch (TooManyRequestsException e) {
+            if (usernameCounter != null) {
+                usernameCounter.refund(now);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Record rejected credentials; enough failures within the lockout duration lock the key out
+     */
+    public void recordFailure(String username, String clientIp) {
+        recordFailure(username, clientIp, System.currentTimeMillis());
+    }
+    
+    void recordFailure(String username, String clientIp, long now) {
+        if (!enabled) {
+            return;
+        }
+        usernames.recordFailure(usernameKey(username), now);
+        if (clientIp != null) {
+            ips.recordFailure(clientIp, now);
+        }
+    }
+    
+    /**
+     * Clear the failure count of a username after a successful login
+     * The client IP keeps its failures so one valid account cannot reset an IP's lockout.
+     */
+    public void recordSuccess(String username) {
+        if (!enabled) {
+            return;
+        }
+        usernames.recordSuccess(usernameKey(username));
+    }
+    
+    int size() {
+        return usernames.size() + ips.size();
+    }
+    
+    private static String usernameKey(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+    
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + sweepInterval.toMillis())) {
+            return;
+        }
+        usernames.sweep(now);
+        ips.sweep(now);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.login.rejected", rateLimited, LongAdder::sum)
+                .tag("reason", "rate-limited")
+                .description("Login attempts rejected before reaching user-service")
+                .register(registry);
+        FunctionCounter.builder("auth.login.rejected", lockedOut, LongAdder::sum)
+                .tag("reason", "locked-out")
+                .description("Login attempts rejected before reaching user-service")
+                .register(registry);
+        FunctionCounter.builder("auth.login.rate-limit.untracked", untrackedUsernames, LongAdder::sum)
+                .tag("key", "username")
+                .description("Login attempts admitted without a username counter because the limiter was full")
+                .register(registry);
+        FunctionCounter.builder("auth.login.rate-limit.untracked", untrackedIps, LongAdder::sum)
+                .tag("key", "ip")
+                .description("Login attempts rejected because the limiter was full and no IP counter could be evicted")
+                .register(registry);
+        FunctionCounter.builder("auth.login.rate-limit.evictions", evictions, LongAdder::sum)
+                .description("Counters evicted to make room for new usernames and client IPs")
+                .register(registry);
+        Gauge.builder("auth.login.rate-limit.keys", this, limiter -> limiter.usernames.size() + limiter.ips.size())
+                .description("Usernames and client IPs currently tracked by the login rate limiter")
+                .register(registry);
+    }
+    
+    /**
+     * Attempt and failure counters for one kind of key
+     */
+    private final class KeyedCounters {
+        
+        private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+        private final int maxAttempts;
+        private final int maxFailures;
+        private final LongAdder untracked;
+        private final boolean failClosed;
+        
+        KeyedCounters(int maxAttempts, int maxFailures, LongAdder untracked, boolean failClosed) {
+            this.maxAttempts = maxAttempts;
+            this.maxFailures = maxFailures;
+            this.untracked = untracked;
+            this.failClosed = failClosed;
+        }
+        
+        /**
+         * Count an attempt for key and return its counter, or null if it was admitted without one
+         */
+        Counter acquire(String key, long now) {
+            Counter counter = counter(key, now);
+            if (counter == null) {
+                untracked.increment();
+                if (failClosed) {
+                    throw new TooManyRequestsException("Too many login attempts. Please try again later.", sweepInterval);
+                }
+                return null;
+            }
+            long retryAfterMillis;
+            synchronized (counter) {
+                counter.lastSeen = now;
+                if (counter.lockedUntil > now) {
+                    lockedOut.increment();
+                    retryAfterMillis = counter.lockedUntil - now;
+                } else {
+                    retryAfterMillis = counter.tryAcquire(now);
+                    if (retryAfterMillis > 0) {
+                        rateLimited.increment();
+                    }
+                }
+            }
+            if (retryAfterMillis > 0) {
+                throw new TooManyRequestsException("Too many login attempts. Please try again later.",
+                        Duration.ofMillis(retryAfterMillis));
+            }
+            return counter;
+        }
+        
+        void recordFailure(String key, long now) {
+            Counter counter = counter(key, now);
+            if (counter == null) {
+                return;
+            }
+            synchronized (counter) {
+                if (now - counter.lastFailure > lockoutDuration.toMillis()) {
+                    counter.failures = 0;
+                }
+                counter.lastFailure = now;
+                if (++counter.failures >= maxFailures) {
+                    counter.failures = 0;
+                    counter.lockedUntil = now + lockoutDuration.toMillis();
+                    logger.warn("Login locked out for {} after {} failed attempts", key, maxFailures);
+                }
+            }
+        }
+        
+        void recordSuccess(String key) {
+            Counter counter = counters.get(key);
+            if (counter != null) {
+                synchronized (counter) {
+                    counter.failures = 0;
+                }
+            }
+        }
+        
+        int size() {
+            return counters.size();
+        }
+        
+        /**
+         * Existing counter for key, or a new one if there is room or a counter can be evicted for it;
+         * null when the limiter is full of counters that still matter
+         */
+        private Counter counter(String key, long now) {
+            Counter counter = counters.get(key);
+            if (counter != null) {
+                return counter;
+            }
+            if (counters.size() >= maxKeys && !evictOne(now)) {
+                return null;
+            }
+            return counters.computeIfAbsent(key, k -> new Counter(window.toMillis(), maxAttempts));
+        }
+        
+        /**
+         * Remove the least recently seen of a few counters that are neither locked out nor hold failures
+         * that still count. Looks at a bounded sample rather than every key, so a full limiter costs each
+         * new key a few counter checks instead of a sweep.
+         */
+        private boolean evictOne(long now) {
+            Map.Entry<String, Counter> oldest = null;
+            long oldestSeen = Long.MAX_VALUE;
+            int sampled = 0;
+            for (Iterator<Map.Entry<String, Counter>> it = counters.entrySet().iterator();
+                 it.hasNext() && sampled < EVICTION_SAMPLE_SIZE; sampled++) {
+                Map.Entry<String, Counter> entry = it.next();
+                Counter candidate = entry.getValue();
+                synchronized (candidate) {
+                    if (!candidate.mattersAt(now, lockoutDuration.toMillis()) && candidate.lastSeen < oldestSeen) {
+                        oldest = entry;
+                        oldestSeen = candidate.lastSeen;
+                    }
+                }
+            }
+            if (oldest == null || !counters.remove(oldest.getKey(), oldest.getValue())) {
+                return false;
+            }
+            evictions.increment();
+            return true;
+        }
+        
+        /**
+         * Drop keys that are neither locked out nor have attempts or failures that still count
+         */
+        private void sweep(long now) {
+            long idleAfter = Math.max(2 * window.toMillis(), lockoutDuration.toMillis());
+            counters.values().removeIf(counter -> {
+                synchronized (counter) {
+                    return counter.lockedUntil <= now
+                            && now - counter.lastSeen > idleAfter
+                            && now - counter.lastFailure > idleAfter;
+                }
+            });
+        }
+    }
+    
+    /**
+     * Sliding-window attempt counter and failure state of a single key, guarded by its own monitor
+     */
+    private static final class Counter {
+        
+        private final long windowMillis;
+        private final int maxAttempts;
+        private long windowStart;
+        private int current;
+        private int previous;
+        private int failures;
+        private long lastFailure;
+        private long lockedUntil;
+        private long lastSeen;
+        
+        Counter(long windowMillis, int maxAttempts) {
+            this.windowMillis = windowMillis;
+            this.maxAttempts = maxAttempts;
+        }
+        
+        /**
+         * Whether dropping the counter would lift a lockout or forget failures within the lockout duration
+         */
+        boolean mattersAt(long now, long lockoutMillis) {
+            return lockedUntil > now || (failures > 0 && now - lastFailure <= lockoutMillis);
+        }
+        
+        /**
+         * Count one attempt if the weighted sliding-window count allows it
+         * Returns 0 when admitted, otherwise the milliseconds until the next attempt may be admitted
+         */
+        long tryAcquire(long now) {
+            long start = now - now % windowMillis;
+            if (start != windowStart) {
+                previous = start - windowStart == windowMillis ? current : 0;
+                current = 0;
+                windowStart = start;
+            }
+            long elapsed = now - start;
+            double estimate = previous * (1.0 - (double) elapsed / windowMillis) + current;
+            if (estimate < maxAttempts) {
+                current++;
+                return 0;
+            }
+            if (current >= maxAttempts || previous == 0) {
+                return windowMillis - elapsed;
+            }
+            // Time until the previous window's weight has dropped enough for one more attempt
+            double weightNeeded = (maxAttempts - current) / (double) previous;
+            long admitAt = (long) Math.ceil((1.0 - weightNeeded) * windowMillis);
+            return Math.max(1, admitAt - elapsed);
+        }
+        
+        /**
+         * Take back an attempt counted by tryAcquire at the same time
+         */
+        synchronized void refund(long now) {
+            if (windowStart == now - now % windowMillis && current > 0) {
+                current--;
+            }
+        }
+    }
+}
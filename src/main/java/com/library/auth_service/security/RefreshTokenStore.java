@@ -0,0 +1,524 @@
+package com.library.auth_service.security;
+
+import com.library.auth_service.exception.AuthenticationException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Store of opaque, single-use refresh tokens.
+ *
+ * Every login starts a token family (a session); each refresh marks the presented token used and
+ * issues the next token of the same family. Presenting a used token again means it was leaked, so
+ * the whole family is revoked. Only SHA-256 digests of tokens are kept. With jwt.refresh.store-file
+ * set, changes are appended to a log that is replayed and compacted at startup.
+ *
+ * Rotation does not extend a session indefinitely: a family ends max-session-lifetime after its
+ * login, its last token expiring then at the latest, so a stolen token that keeps being rotated
+ * still dies and the user has to log in again.
+ *
+ * The store is bounded. A family keeps only its current token and the one it replaced, which is
+ * enough to catch a stolen token replayed after its rotation; older tokens of the family are simply
+ * unknown. A user has at most max-sessions-per-user families and the store at most max-sessions,
+ * the oldest family making way in both cases. A session takes about 800 bytes of heap, and as the
+ * log is compacted once it holds over two records of about 100 bytes per live token, well under
+ * 1 KB of disk; the default 100,000 sessions come to about 80 MB of heap and 100 MB of disk at most.
+ */
+@Component
+public class RefreshTokenStore implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenStore.class);
+    
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final LongAdder minted = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    // Guards the state and the log, so the log is written in the order the state changed.
+    // A lock rather than synchronized: file writes must not pin virtual threads.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Entry> tokens = new HashMap<>();
+    // Oldest first, for max-sessions
+    private final LinkedHashMap<String, Family> families = new LinkedHashMap<>();
+    // Oldest first per user, for max-sessions-per-user
+    private final Map<String, ArrayDeque<Family>> userFamilies = new HashMap<>();
+    private Path logFile;
+    private Writer log;
+    private long logRecords;
+    
+    @Value("${jwt.refresh.expiration:14d}")
+    private Duration expiration;
+    
+    @Value("${jwt.refresh.max-session-lifetime:30d}")
+    private Duration maxSessionLifetime;
+    
+    @Value("${jwt.refresh.store-file:}")
+    private String storeFile;
+    
+    @Value("${jwt.refresh.sweep-interval:10m}")
+    private Duration sweepInterval;
+    
+    @Value("${jwt.refresh.max-sessions-per-user:10}")
+    private int maxSessionsPerUser;
+    
+    @Value("${jwt.refresh.max-sessions:100000}")
+    private int maxSessions;
+    
+    @PostConstruct
+    void init() {
+        nextSweep.set(System.currentTimeMillis() + sweepInterval.toMillis());
+        if (storeFile == null || storeFile.isBlank()) {
+            return;
+        }
+        logFile = Path.of(storeFile);
+        lock.lock();
+        try {
+            if (Files.exists(logFile)) {
+                replay();
+            }
+            compact();
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Loaded {} refresh token session(s) from {}", families.size(), logFile);
+    }
+    
+    @PreDestroy
+    void close() throws IOException {
+        lock.lock();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Issue the first refresh token of a new family
+     * The user's oldest session is dropped if this one would exceed max-sessions-per-user.
+     */
+    public String issue(String username, String role, Long userId) {
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+        lock.lock();
+        try {
+            Family family = new Family(randomId(), username, role, userId, now);
+            addFamily(family);
+            return issue(family, expiresAt(family, now));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Consume a refresh token and issue its successor
+     * Unknown, expired, revoked and already used tokens are rejected; reuse also revokes the family.
+     */
+    public RefreshGrant rotate(String refreshToken) {
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+        
+        String digest = digest(refreshToken);
+        lock.lock();
+        try {
+            Entry entry = tokens.get(digest);
+            if (entry != null && now >= entry.family.createdAt + maxSessionLifetime.toMillis()) {
+                drop(entry.family);
+                throw new AuthenticationException("Refresh token session has expired, please log in again");
+            }
+            if (entry == null || entry.expiresAt <= now) {
+                throw new AuthenticationException("Invalid or expired refresh token");
+            }
+            Family family = entry.family;
+            if (entry.used) {
+                logger.warn("Refresh token reuse detected for user {}, revoking the session", family.username);
+                drop(family);
+                throw new AuthenticationException("Refresh token has already been used");
+            }
+            entry.used = true;
+            append("U\t" + digest);
+            
+            String next = issue(family, expiresAt(family, now));
+            return new RefreshGrant(next, family.username, family.role, family.userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Revoke the family of a refresh token, ending that login session; unknown tokens are ignored
+     */
+    public void revoke(String refreshToken) {
+        String digest = digest(refreshToken);
+        lock.lock();
+        try {
+            Entry entry = tokens.get(digest);
+            if (entry != null) {
+                drop(entry.family);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Number of live sessions (token families)
+     */
+    public int sessions() {
+        lock.lock();
+        try {
+            return families.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Register a new family, dropping the oldest ones beyond the per-user and total limits; caller holds lock
+     */
+    private void addFamily(Family family) {
+        families.put(family.id, family);
+        ArrayDeque<Family> ofUser = userFamilies.computeIfAbsent(family.userKey(), k -> new ArrayDeque<>());
+        ofUser.addLast(family);
+        while (ofUser.size() > maxSessionsPerUser) {
+            evict(ofUser.peekFirst());
+        }
+        while (families.size() > maxSessions) {
+            evict(families.values().iterator().next());
+        }
+    }
+    
+    /**
+     * Expiry of a token issued now, never past the end of its session
+     */
+    private long expiresAt(Family family, long now) {
+        return Math.min(now + expiration.toMillis(), family.createdAt + maxSessionLifetime.toMillis());
+    }
+    
+    private void evict(Family family) {
+        drop(family);
+        evicted.increment();
+    }
+    
+    /**
+     * Next token of a family; the token it replaces is kept to detect reuse, the one before is forgotten.
+     * Caller holds lock.
+     */
+    private String issue(Family family, long expiresAt) {
+        String token = randomId();
+        String digest = digest(token);
+        Entry entry = new Entry(family, expiresAt);
+        addToken(family, digest, entry);
+        append("I\t" + digest + "\t" + entry.toRecord());
+        minted.increment();
+        return token;
+    }
+    
+    private void addToken(Family family, String digest, Entry entry) {
+        if (family.previous != null) {
+            tokens.remove(family.previous);
+        }
+        family.previous = family.current;
+        family.current = digest;
+        tokens.put(digest, entry);
+    }
+    
+    /**
+     * Forget a family and its tokens, which are rejected as unknown from then on; caller holds lock
+     */
+    private void drop(Family family) {
+        if (families.remove(family.id) == null) {
+            return;
+        }
+        tokens.remove(family.current);
+        if (family.previous != null) {
+            tokens.remove(family.previous);
+        }
+        ArrayDeque<Family> ofUser = userFamilies.get(family.userKey());
+        if (ofUser != null) {
+            ofUser.remove(family);
+            if (ofUser.isEmpty()) {
+                userFamilies.remove(family.userKey());
+            }
+        }
+        append("R\t" + family.id);
+    }
+    
+    private String randomId() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return BASE64.encodeToString(bytes);
+    }
+    
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return BASE64.encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Drop sessions whose current token has expired; compact the log once it holds mostly dead records
+     */
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + sweepInterval.toMillis())) {
+            return;
+        }
+        lock.lock();
+        try {
+            dropExpired(now);
+            if (logFile != null && logRecords > 2L * tokens.size() + 1000) {
+                compact();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void dropExpired(long now) {
+        List<Family> expired = new ArrayList<>();
+        for (Family family : families.values()) {
+            if (tokens.get(family.current).expiresAt <= now) {
+                expired.add(family);
+            }
+        }
+        expired.forEach(this::drop);
+    }
+    
+    /**
+     * Caller holds lock
+     */
+    private void append(String record) {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.write(record);
+            log.write('\n');
+            log.flush();
+            logRecords++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write refresh token store " + logFile, e);
+        }
+    }
+    
+    /**
+     * Rebuild the state by applying the log's records in order, with the same limits as when they
+     * were written; caller holds lock, and the log is not open yet, so nothing is appended
+     */
+    private void replay() {
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    String[] fields = line.split("\t", 8);
+                    switch (fields[0]) {
+                        case "I" -> replayIssue(fields);
+                        case "U" -> {
+                            Entry entry = tokens.get(fields[1]);
+                            if (entry != null) {
+                                entry.used = true;
+                            }
+                        }
+                        // Older logs follow the family id with the end of its revocation, which is not needed
+                        case "R" -> {
+                            Family family = families.get(fields[1]);
+                            if (family != null) {
+                                drop(family);
+                            }
+                        }
+                        default -> throw new IllegalArgumentException("unknown record type");
+                    }
+                } catch (RuntimeException e) {
+                    // A crash can leave a torn last line behind
+                    logger.warn("Skipping unreadable refresh token record in {}: {}", logFile, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read refresh token store " + logFile, e);
+        }
+        dropExpired(System.currentTimeMillis());
+    }
+    
+    private void replayIssue(String[] fields) {
+        Long userId = "-".equals(fields[4]) ? null : Long.valueOf(fields[4]);
+        String role = "-".equals(fields[5]) ? null : URLDecoder.decode(fields[5], StandardCharsets.UTF_8);
+        String username = URLDecoder.decode(fields[6], StandardCharsets.UTF_8);
+        long expiresAt = Long.parseLong(fields[3]);
+        // Records written before the login time was logged count the session from its first known token
+        long createdAt = fields.length > 7 ? Long.parseLong(fields[7]) : expiresAt - expiration.toMillis();
+        Family family = families.get(fields[2]);
+        if (family == null) {
+            family = new Family(fields[2], username, role, userId, createdAt);
+            addFamily(family);
+        }
+        addToken(family, fields[1], new Entry(family, expiresAt));
+    }
+    
+    /**
+     * Rewrite the log with only the live state and reopen it for appending; caller holds lock
+     */
+    private void compact() {
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+            Path parent = logFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, logFile.getFileName().toString(), ".tmp");
+            long records = 0;
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                // Oldest family first and each family's tokens in order, so a replay ends in the same state
+                for (Family family : families.values()) {
+                    for (String digest : new String[] {family.previous, family.current}) {
+                        Entry entry = digest != null ? tokens.get(digest) : null;
+                        if (entry == null) {
+                            continue;
+                        }
+                        writer.write("I\t" + digest + "\t" + entry.toRecord() + "\n");
+                        records++;
+                        if (entry.used) {
+                            writer.write("U\t" + digest + "\n");
+                            records++;
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            logRecords = records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact refresh token store " + logFile, e);
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.tokens.minted", minted, LongAdder::sum)
+                .tag("type", "refresh")
+                .description("Tokens issued by this instance")
+                .register(registry);
+        FunctionCounter.builder("auth.refresh.sessions.evicted", evicted, LongAdder::sum)
+                .description("Refresh token sessions dropped for max-sessions-per-user or max-sessions")
+                .register(registry);
+        Gauge.builder("auth.refresh.sessions", this, RefreshTokenStore::sessions)
+                .description("Live refresh token sessions")
+                .register(registry);
+    }
+    
+    /**
+     * Claims carried over to the access token minted on refresh, plus the next refresh token
+     */
+    public static final class RefreshGrant {
+        
+        private final String refreshToken;
+        private final String username;
+        private final String role;
+        private final Long userId;
+        
+        RefreshGrant(String refreshToken, String username, String role, Long userId) {
+            this.refreshToken = refreshToken;
+            this.username = username;
+            this.role = role;
+            this.userId = userId;
+        }
+        
+        public String getRefreshToken() { return refreshToken; }
+        
+        public String getUsername() { return username; }
+        
+        public String getRole() { return role; }
+        
+        public Long getUserId() { return userId; }
+    }
+    
+    /**
+     * One login session: the tokens it went through share the family id
+     */
+    private static final class Family {
+        
+        private final String id;
+        private final String username;
+        private final String role;
+        private final Long userId;
+        private final long createdAt;
+        private String current;
+        private String previous;
+        
+        Family(String id, String username, String role, Long userId, long createdAt) {
+            this.id = id;
+            this.username = username;
+            this.role = role;
+            this.userId = userId;
+            this.createdAt = createdAt;
+        }
+        
+        String userKey() {
+            return userId != null ? "id:" + userId : "name:" + username;
+        }
+    }
+    
+    private static final class Entry {
+        
+        private final Family family;
+        private final long expiresAt;
+        private boolean used;
+        
+        Entry(Family family, long expiresAt) {
+            this.family = family;
+            this.expiresAt = expiresAt;
+        }
+        
+        /**
+         * Tab-separated family, expiry, user id, role, username and login time; free-form values are URL-encoded
+         */
+        String toRecord() {
+            return family.id + "\t" + expiresAt + "\t" + (family.userId != null ? family.userId : "-") + "\t"
+                    + (family.role != null ? URLEncoder.encode(family.role, StandardCharsets.UTF_8) : "-") + "\t"
+                    + URLEncoder.encode(family.username, StandardCharsets.UTF_8) + "\t" + family.createdAt;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.library.auth_service.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Revoked token ids (jti), each kept only until the token it belongs to would have expired.
+ *
+ * Lookups go through a Bloom filter first, so a token that was never revoked costs a handful
+ * of bit probes and no map access; only filter hits are confirmed against the map. The filter
+ * cannot forget ids, so it is rebuilt from the live ids when expired ones are swept, and grown
+ * when more ids are revoked than it was sized for.
+ *
+ * With auth.revocation.store-file set, revocations are appended to a log that is replayed and
+ * compacted at startup, like the refresh token store, so a logout survives a restart. The log
+ * belongs to one instance: with several replicas, each only rejects the tokens revoked through it,
+ * and the others keep accepting them until they expire. Keep access tokens short-lived, or route
+ * revocations and validations to a single instance, when running more than one.
+ */
+@Component
+public class RevokedTokenStore implements MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokenStore.class);
+    
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    // Serializes writers with filter rebuilds and the log; lookups never take it.
+    // A lock rather than synchronized: file writes must not pin virtual threads.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile BloomFilter filter;
+    private Path logFile;
+    private Writer log;
+    private long logRecords;
+    
+    @Value("${auth.revocation.expected-revocations:10000}")
+    private int expectedRevocations;
+    
+    @Value("${auth.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${auth.revocation.sweep-interval:1m}")
+    private Duration sweepInterval;
+    
+    @Value("${auth.revocation.store-file:}")
+    private String storeFile;
+    
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        nextSweep.set(System.currentTimeMillis() + sweepInterval.toMillis());
+        if (storeFile == null || storeFile.isBlank()) {
+            return;
+        }
+        logFile = Path.of(storeFile);
+        writeLock.lock();
+        try {
+            if (Files.exists(logFile)) {
+                replay();
+            }
+            rebuild(System.currentTimeMillis(), expectedRevocations);
+            compact();
+        } finally {
+            writeLock.unlock();
+        }
+        logger.info("Loaded {} revoked token id(s) from {}", revoked.size(), logFile);
+    }
+    
+    @PreDestroy
+    void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Revoke a token id until expiresAtMillis, after which the token is rejected as expired anyway
+     */
+    public void revoke(String tokenId, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (tokenId == null || expiresAtMillis < now) {
+            return;
+        }
+        sweepIfDue(now);
+        writeLock.lock();
+        try {
+            revoked.merge(tokenId, expiresAtMillis, Math::max);
+            append(tokenId, expiresAtMillis);
+            BloomFilter current = filter;
+            if (revoked.size() > current.capacity) {
+                rebuild(now, current.capacity * 2);
+            } else {
+                current.add(tokenId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Whether the token id has been revoked; null ids (tokens issued without jti) never are
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        filterHits.increment();
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+        Long expiresAt = revoked.get(tokenId);
+        if (expiresAt == null || expiresAt < now) {
+            falsePositives.increment();
+            return false;
+        }
+        return true;
+    }
+    
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + sweepInterval.toMillis())) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            rebuild(now, Math.max(expectedRevocations, filter.capacity));
+            if (logFile != null && logRecords > 2L * revoked.size() + 1000) {
+                compact();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Drop expired ids and swap in a filter holding only the live ones; caller holds writeLock
+     */
+    private void rebuild(long now, int capacity) {
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(capacity, revoked.size()), falsePositiveRate);
+        for (String tokenId : revoked.keySet()) {
+            rebuilt.add(tokenId);
+        }
+        filter = rebuilt;
+    }
+    
+    /**
+     * Caller holds writeLock
+     */
+    private void append(String tokenId, long expiresAtMillis) {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.write(URLEncoder.encode(tokenId, StandardCharsets.UTF_8) + "\t" + expiresAtMillis + "\n");
+            log.flush();
+            logRecords++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write revoked token store " + logFile, e);
+        }
+    }
+    
+    /**
+     * Load the revocations of the log; caller holds writeLock, and the log is not open yet
+     */
+    private void replay() {
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    String[] fields = line.split("\t", 2);
+                    revoked.merge(URLDecoder.decode(fields[0], StandardCharsets.UTF_8),
+                            Long.parseLong(fields[1]), Math::max);
+                } catch (RuntimeException e) {
+                    // A crash can leave a torn last line behind
+                    logger.warn("Skipping unreadable revocation record in {}: {}", logFile, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read revoked token store " + logFile, e);
+        }
+    }
+    
+    /**
+     * Rewrite the log with only the live ids and reopen it for appending; caller holds writeLock
+     */
+    private void compact() {
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+            Path parent = logFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, logFile.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Long> entry : revoked.entrySet()) {
+                    writer.write(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + "\t" + entry.getValue() + "\n");
+                }
+            }
+            Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            logRecords = revoked.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact revoked token store " + logFile, e);
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.token.revoked.size", revoked, Map::size)
+                .description("Revoked token ids that have not expired yet")
+                .register(registry);
+        FunctionCounter.builder("auth.token.revoked.filter.hits", filterHits, LongAdder::sum)
+                .description("Revocation lookups that passed the Bloom filter and needed a map lookup")
+                .register(registry);
+        FunctionCounter.builder("auth.token.revoked.filter.false-positives", falsePositives, LongAdder::sum)
+                .description("Bloom filter hits for token ids that were not (or no longer) revoked")
+                .register(registry);
+    }
+    
+    /**
+     * Lock-free Bloom filter over an AtomicLongArray, using double hashing of one 64-bit hash
+     */
+    private static final class BloomFilter {
+        
+        private final int capacity;
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        
+        BloomFilter(int capacity, double falsePositiveRate) {
+            this.capacity = Math.max(capacity, 64);
+            // Optimal size m = -n ln p / (ln 2)^2 and hash count k = m / n ln 2
+            long m = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((m + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * Math.log(2)));
+        }
+        
+        void add(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = bits.get(word);
+                while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    current = bits.get(word);
+                }
+            }
+        }
+        
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * 64-bit FNV-1a over the chars, finished with the SplitMix64 mixer
+         */
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+            h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+            return h ^ (h >>> 31);
+        }
+    }
+}
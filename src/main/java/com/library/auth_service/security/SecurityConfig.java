@@ -2,6 +2,7 @@ package com.library.auth_service.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -9,10 +10,12 @@ import org.springframework.security.web.SecurityFilterChain;
 
 /**
  * Security configuration for auth service
- * All endpoints are public since this is the authentication service
+ * All API endpoints are public since this is the authentication service; actuator endpoints are
+ * not on this port but on management.server.port, which only the internal network should reach
  */
 @Configuration
 @EnableWebSecurity
+@Profile("!reactive")
 public class SecurityConfig {
     
     @Bean
@@ -0,0 +1,199 @@
+package com.library.auth_service.security;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A signing key of the key ring together with its precomputed parser.
+ * JwtParser instances are immutable and thread-safe, so one parser is shared by all requests.
+ * Initialized Mac instances are pooled for signature checks on the introspection path and for minting.
+ * 
+ * HMAC keys sign and verify with the same secret. Asymmetric keys (ES256, EdDSA) verify with
+ * the public key that is published as a JWK; they can sign only when the private key is loaded.
+ */
+public final class SigningKey {
+    
+    private static final int MAX_POOLED_MACS = 64;
+    
+    private final String kid;
+    private final String algorithm;
+    private final Key signingKey;
+    private final Key verificationKey;
+    private final JwtParser parser;
+    private final Map<String, Object> jwk;
+    private final ConcurrentLinkedQueue<Mac> macPool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledMacs = new AtomicInteger();
+    
+    private SigningKey(String kid, SecretKey key) {
+        this.kid = kid;
+        // Keys.hmacShaKeyFor picks HmacSHA256/384/512 from the key length, JJWT signs with the matching HSxxx
+        this.algorithm = "HS" + key.getAlgorithm().substring("HmacSHA".length());
+        this.signingKey = key;
+        this.verificationKey = key;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.jwk = null;
+    }
+    
+    private SigningKey(String kid, String algorithm, PrivateKey privateKey, PublicKey publicKey) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.signingKey = privateKey;
+        this.verificationKey = publicKey;
+        this.parser = Jwts.parser().verifyWith(publicKey).build();
+        this.jwk = AsymmetricKeys.toJwk(kid, algorithm, publicKey);
+    }
+    
+    /**
+     * Derive an HMAC key from a shared secret
+     */
+    public static SigningKey hmac(String kid, String secret) {
+        return new SigningKey(kid, Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * Asymmetric key identified by its JWK thumbprint. The private key may be null for
+     * keys that are only kept to verify tokens issued before a rotation.
+     */
+    public static SigningKey asymmetric(String algorithm, PrivateKey privateKey, PublicKey publicKey) {
+        return new SigningKey(AsymmetricKeys.thumbprint(publicKey), algorithm, privateKey, publicKey);
+    }
+    
+    public String getKid() { return kid; }
+    
+    /**
+     * JWS "alg" header value of tokens signed with this key
+     */
+    public String getAlgorithm() { return algorithm; }
+    
+    /**
+     * Secret or private key used to sign new tokens, null for verification-only keys
+     */
+    public Key getSigningKey() { return signingKey; }
+    
+    public JwtParser getParser() { return parser; }
+    
+    public boolean isAsymmetric() { return jwk != null; }
+    
+    /**
+     * Public JWK of an asymmetric key, null for HMAC keys which must never be published
+     */
+    public Map<String, Object> getJwk() { return jwk; }
+    
+    /**
+     * Check a JWS signature over the first length bytes of signingInput.
+     * HMAC signatures are compared in constant time.
+     */
+    public boolean verify(byte[] signingInput, int length, byte[] signature) {
+        if (isAsymmetric()) {
+            return verifyAsymmetric(signingInput, length, signature);
+        }
+        Mac mac = borrowMac();
+        try {
+            mac.update(signingInput, 0, length);
+            return MessageDigest.isEqual(mac.doFinal(), signature);
+        } finally {
+            releaseMac(mac);
+        }
+    }
+    
+    /**
+     * Length in bytes of the signatures this key produces
+     */
+    public int getSignatureLength() {
+        if (isAsymmetric()) {
+            return AsymmetricKeys.SIGNATURE_LENGTH;
+        }
+        // HS256 / HS384 / HS512
+        return Integer.parseInt(algorithm.substring(2)) / 8;
+    }
+    
+    /**
+     * Sign the first length bytes of signingInput into output at offset and return the signature length
+     * The output must have getSignatureLength() bytes free at offset.
+     */
+    public int sign(byte[] signingInput, int length, byte[] output, int offset) {
+        if (signingKey == null) {
+            throw new IllegalStateException("Key " + kid + " can only verify tokens");
+        }
+        try {
+            if (isAsymmetric()) {
+                Signature signer = Signature.getInstance(AsymmetricKeys.signatureAlgorithm(algorithm));
+                signer.initSign((PrivateKey) signingKey);
+                signer.update(signingInput, 0, length);
+                return signer.sign(output, offset, output.length - offset);
+            }
+            Mac mac = borrowMac();
+            try {
+                mac.update(signingInput, 0, length);
+                mac.doFinal(output, offset);
+                return mac.getMacLength();
+            } finally {
+                releaseMac(mac);
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign with " + algorithm, e);
+        }
+    }
+    
+    private boolean verifyAsymmetric(byte[] signingInput, int length, byte[] signature) {
+        if (signature.length != AsymmetricKeys.SIGNATURE_LENGTH) {
+            return false;
+        }
+        try {
+            Signature verifier = Signature.getInstance(AsymmetricKeys.signatureAlgorithm(algorithm));
+            verifier.initVerify((PublicKey) verificationKey);
+            verifier.update(signingInput, 0, length);
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            // Out-of-range signature values are reported this way by some providers
+            return false;
+        }
+    }
+    
+    private Mac borrowMac() {
+        Mac mac = macPool.poll();
+        if (mac != null) {
+            pooledMacs.decrementAndGet();
+            return mac;
+        }
+        try {
+            mac = Mac.getInstance(verificationKey.getAlgorithm());
+            mac.init(verificationKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + verificationKey.getAlgorithm(), e);
+        }
+    }
+    
+    private void releaseMac(Mac mac) {
+        // doFinal already reset the Mac
+        if (pooledMacs.incrementAndGet() <= MAX_POOLED_MACS) {
+            macPool.offer(mac);
+        } else {
+            pooledMacs.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Two keys are interchangeable when they have the same id and key material
+     */
+    boolean sameAs(SigningKey other) {
+        return kid.equals(other.kid)
+                && verificationKey.equals(other.verificationKey)
+                && (signingKey == null) == (other.signingKey == null);
+    }
+}
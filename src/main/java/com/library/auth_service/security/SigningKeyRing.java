@@ -0,0 +1,330 @@
+package com.library.auth_service.security;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.KeyPair;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ring of HMAC signing keys identified by the JWT "kid" header.
+ * 
+ * The key derived from jwt.secret is always part of the ring and is used for tokens
+ * without a kid (issued before key ids were introduced). Additional keys can be provided
+ * in the properties file referenced by jwt.keys-file:
+ * 
+ *   active-kid=2024-11
+ *   key.2024-11=...
+ *   key.2024-10=...
+ * 
+ * New tokens are signed with the active key while every key in the ring is accepted,
+ * so secrets can be rolled by adding the new key, switching active-kid and removing the
+ * old key once its tokens have expired. The file is watched and reloaded without a restart.
+ * 
+ * With jwt.algorithm set to ES256 or EdDSA, new tokens are signed with an asymmetric key
+ * loaded from PEM files instead. Its public key, and those of previous keys still accepted
+ * during a rotation, are published through the JWKS endpoint so other services can verify
+ * tokens locally. HMAC keys remain accepted for tokens issued before the switch.
+ * Startup fails without a private key file unless jwt.asymmetric.allow-ephemeral-key is set.
+ */
+@Component
+public class SigningKeyRing {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyRing.class);
+    
+    private static final String ACTIVE_KID_PROPERTY = "active-kid";
+    private static final String KEY_PROPERTY_PREFIX = "key.";
+    private static final long RELOAD_DEBOUNCE_MILLIS = 500;
+    
+    @Value("${jwt.secret}")
+    private String secret;
+    
+    @Value("${jwt.key-id:primary}")
+    private String defaultKid;
+    
+    @Value("${jwt.keys-file:}")
+    private String keysFile;
+    
+    @Value("${jwt.algorithm:HMAC}")
+    private String algorithm;
+    
+    @Value("${jwt.asymmetric.private-key-file:}")
+    private String privateKeyFile;
+    
+    @Value("${jwt.asymmetric.public-key-file:}")
+    private String publicKeyFile;
+    
+    @Value("${jwt.asymmetric.previous-public-key-files:}")
+    private String[] previousPublicKeyFiles;
+    
+    // Development only: a generated key differs per instance and is lost on restart
+    @Value("${jwt.asymmetric.allow-ephemeral-key:false}")
+    private boolean allowEphemeralKey;
+    
+    private KeyPair ephemeralKeyPair;
+    private volatile KeySet keys;
+    private volatile Thread watcher;
+    
+    @PostConstruct
+    void init() {
+        if (!"HMAC".equals(algorithm) && !AsymmetricKeys.isSupported(algorithm)) {
+            throw new IllegalStateException("Unsupported jwt.algorithm " + algorithm + ", use HMAC, ES256 or EdDSA");
+        }
+        if (AsymmetricKeys.isSupported(algorithm) && privateKeyFile.isBlank()) {
+            if (!allowEphemeralKey) {
+                throw new IllegalStateException("jwt.algorithm " + algorithm + " needs jwt.asymmetric.private-key-file "
+                        + "(or jwt.asymmetric.allow-ephemeral-key=true for development)");
+            }
+            ephemeralKeyPair = AsymmetricKeys.generate(algorithm);
+            logger.warn("No jwt.asymmetric.private-key-file configured, signing with a generated {} key. "
+                    + "Tokens will not survive a restart and are not shared between instances.", algorithm);
+        }
+        keys = loadKeys();
+        logger.info("Loaded {} signing key(s), active key id: {} ({})",
+                keys.byKid.size(), keys.active.getKid(), keys.active.getAlgorithm());
+        
+        Set<Path> watchedFiles = new LinkedHashSet<>();
+        addWatchedFile(watchedFiles, keysFile);
+        addWatchedFile(watchedFiles, privateKeyFile);
+        addWatchedFile(watchedFiles, publicKeyFile);
+        for (String file : previousPublicKeyFiles) {
+            addWatchedFile(watchedFiles, file);
+        }
+        if (!watchedFiles.isEmpty()) {
+            startWatcher(watchedFiles);
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        Thread current = watcher;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+    
+    /**
+     * Key used to sign new tokens
+     */
+    public SigningKey getActiveKey() {
+        return keys.active;
+    }
+    
+    /**
+     * Key for a kid header value, or null if the ring does not contain it.
+     * Tokens without a kid resolve to the key derived from jwt.secret.
+     */
+    public SigningKey resolve(String kid) {
+        KeySet current = keys;
+        return kid == null ? current.legacy : current.byKid.get(kid);
+    }
+    
+    /**
+     * Precomputed key for the kid in the token header
+     */
+    public SigningKey keyFor(String token) {
+        String kid = extractKid(token);
+        SigningKey key = resolve(kid);
+        if (key == null) {
+            throw new JwtException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+    
+    public Map<String, SigningKey> getKeys() {
+        return keys.byKid;
+    }
+    
+    /**
+     * Public JWKs of the asymmetric keys in the ring
+     */
+    public List<Map<String, Object>> getPublicJwks() {
+        return keys.jwks;
+    }
+    
+    /**
+     * Re-read the keys file. The current ring is kept if the file cannot be loaded.
+     */
+    public void reload() {
+        try {
+            KeySet loaded = loadKeys();
+            if (!loaded.sameAs(keys)) {
+                keys = loaded;
+                logger.info("Reloaded {} signing key(s), active key id: {}", loaded.byKid.size(), loaded.active.getKid());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload signing keys, keeping current keys: {}", e.getMessage());
+        }
+    }
+    
+    private KeySet loadKeys() {
+        SigningKey legacy = SigningKey.hmac(defaultKid, secret);
+        Map<String, SigningKey> byKid = new LinkedHashMap<>();
+        byKid.put(legacy.getKid(), legacy);
+        String activeKid = legacy.getKid();
+        
+        if (!keysFile.isBlank()) {
+            Properties properties = readKeysFile(Paths.get(keysFile));
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(KEY_PROPERTY_PREFIX)) {
+                    String kid = name.substring(KEY_PROPERTY_PREFIX.length());
+                    byKid.put(kid, SigningKey.hmac(kid, properties.getProperty(name).trim()));
+                }
+            }
+            activeKid = properties.getProperty(ACTIVE_KID_PROPERTY, activeKid).trim();
+        }
+        
+        if (AsymmetricKeys.isSupported(algorithm)) {
+            SigningKey asymmetric = loadAsymmetricKey();
+            byKid.put(asymmetric.getKid(), asymmetric);
+            activeKid = asymmetric.getKid();
+            for (String file : previousPublicKeyFiles) {
+                if (!file.isBlank()) {
+                    SigningKey previous = SigningKey.asymmetric(
+                        algorithm, null, AsymmetricKeys.readPublicKey(Paths.get(file.trim()), algorithm));
+                    byKid.putIfAbsent(previous.getKid(), previous);
+                }
+            }
+        }
+        
+        SigningKey active = byKid.get(activeKid);
+        if (active == null) {
+            throw new IllegalStateException("Active key id " + activeKid + " is not defined in " + keysFile);
+        }
+        List<Map<String, Object>> jwks = byKid.values().stream()
+                .filter(SigningKey::isAsymmetric)
+                .map(SigningKey::getJwk)
+                .toList();
+        return new KeySet(active, legacy, Collections.unmodifiableMap(byKid), jwks);
+    }
+    
+    private SigningKey loadAsymmetricKey() {
+        if (ephemeralKeyPair != null) {
+            return SigningKey.asymmetric(algorithm, ephemeralKeyPair.getPrivate(), ephemeralKeyPair.getPublic());
+        }
+        if (publicKeyFile.isBlank()) {
+            throw new IllegalStateException("jwt.asymmetric.public-key-file is required with a private key file");
+        }
+        return SigningKey.asymmetric(
+            algorithm,
+            AsymmetricKeys.readPrivateKey(Paths.get(privateKeyFile), algorithm),
+            AsymmetricKeys.readPublicKey(Paths.get(publicKeyFile), algorithm)
+        );
+    }
+    
+    private Properties readKeysFile(Path path) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read keys file " + path, e);
+        }
+        return properties;
+    }
+    
+    private static void addWatchedFile(Set<Path> files, String file) {
+        if (file != null && !file.isBlank()) {
+            files.add(Paths.get(file.trim()).toAbsolutePath());
+        }
+    }
+    
+    /**
+     * Watch the directories of the key files. Any event in them triggers a reload,
+     * which also covers secret volumes that are updated by swapping a symlink.
+     */
+    private void startWatcher(Set<Path> files) {
+        Set<Path> directories = new LinkedHashSet<>();
+        files.forEach(file -> directories.add(file.getParent()));
+        Thread thread = new Thread(() -> {
+            try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+                for (Path directory : directories) {
+                    directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+                while (!Thread.currentThread().isInterrupted()) {
+                    WatchKey key = watchService.take();
+                    // Wait until the writer is done so a half-written file is never loaded
+                    do {
+                        key.pollEvents();
+                        key.reset();
+                    } while ((key = watchService.poll(RELOAD_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+                    reload();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                logger.error("Cannot watch key files {}: {}", files, e.getMessage());
+            }
+        }, "jwt-keys-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        watcher = thread;
+    }
+    
+    /**
+     * Read the kid value from the token header, with the same header parsing as JwtUtil.introspect
+     */
+    static String extractKid(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        byte[] header = Base64Url.decode(token, 0, dot);
+        return header == null ? null : JwtUtil.headerValue(new String(header, StandardCharsets.UTF_8), "kid");
+    }
+    
+    /**
+     * Immutable snapshot of the ring, swapped atomically on reload
+     */
+    private static final class KeySet {
+        
+        private final SigningKey active;
+        private final SigningKey legacy;
+        private final Map<String, SigningKey> byKid;
+        private final List<Map<String, Object>> jwks;
+        
+        KeySet(SigningKey active, SigningKey legacy, Map<String, SigningKey> byKid, List<Map<String, Object>> jwks) {
+            this.active = active;
+            this.legacy = legacy;
+            this.byKid = byKid;
+            this.jwks = jwks;
+        }
+        
+        boolean sameAs(KeySet other) {
+            if (!active.sameAs(other.active) || byKid.size() != other.byKid.size()) {
+                return false;
+            }
+            for (SigningKey key : byKid.values()) {
+                SigningKey otherKey = other.byKid.get(key.getKid());
+                if (otherKey == null || !key.sameAs(otherKey)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.library.auth_service.security;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Result of verifying a token once: either its verified claims or the reason it was rejected.
+ * Failure results are shared constants, so the invalid path allocates nothing.
+ */
+public final class TokenIntrospection {
+    
+    public enum Status {
+        VALID("Token is valid"),
+        MISSING("Token is missing"),
+        MALFORMED("Token is malformed"),
+        UNKNOWN_KEY("Token is signed with an unknown key"),
+        INVALID_SIGNATURE("Token signature is invalid"),
+        NOT_YET_VALID("Token is not valid yet"),
+        EXPIRED("Token is expired"),
+        REVOKED("Token has been revoked"),
+        USER_BLOCKED("User account is restricted, rejected or no longer active");
+        
+        private final String message;
+        
+        Status(String message) {
+            this.message = message;
+        }
+        
+        public String getMessage() { return message; }
+    }
+    
+    private static final Map<Status, TokenIntrospection> FAILURES = new EnumMap<>(Status.class);
+    
+    static {
+        for (Status status : Status.values()) {
+            if (status != Status.VALID) {
+                FAILURES.put(status, new TokenIntrospection(status, null));
+            }
+        }
+    }
+    
+    private final Status status;
+    private final VerifiedToken token;
+    
+    private TokenIntrospection(Status status, VerifiedToken token) {
+        this.status = status;
+        this.token = token;
+    }
+    
+    public static TokenIntrospection valid(VerifiedToken token) {
+        return new TokenIntrospection(Status.VALID, token);
+    }
+    
+    public static TokenIntrospection failure(Status status) {
+        if (status == Status.VALID) {
+            throw new IllegalArgumentException("A failure needs a failure status");
+        }
+        return FAILURES.get(status);
+    }
+    
+    public boolean isValid() { return status == Status.VALID; }
+    
+    public Status getStatus() { return status; }
+    
+    /**
+     * Verified claims, or null if the token was rejected
+     */
+    public VerifiedToken getToken() { return token; }
+    
+    public String getMessage() { return status.getMessage(); }
+}
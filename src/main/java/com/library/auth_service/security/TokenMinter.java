@@ -0,0 +1,262 @@
+package com.library.auth_service.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mints access tokens with the fixed claim set of this service (jti, role, userId, sub, iat, exp)
+ * without going through the generic JJWT builder and its claims map, Date objects and JSON serializer.
+ *
+ * The encoded header of the active key is computed once. The payload JSON is written byte by byte
+ * into a pooled buffer, Base64URL-encoded straight behind the header and signed in place with the
+ * key's pooled Mac, so a token costs little more than the resulting string. The result is a plain
+ * compact JWS that JJWT or any other JWT library verifies. Buffers are pooled like SigningKey's Macs
+ * rather than kept per thread, which would leave one behind for every virtual thread.
+ */
+final class TokenMinter {
+    
+    private static final int MAX_POOLED_BUFFERS = 64;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    
+    private final ConcurrentLinkedQueue<Buffers> bufferPool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+    private volatile EncodedHeader header;
+    
+    /**
+     * Mint a token; a null subject, role or userId is left out like JJWT does with null claims
+     */
+    String mint(SigningKey key, String subject, String role, Long userId, long issuedAtMillis, long expiresAtMillis) {
+        byte[] encodedHeader = encodedHeader(key);
+        Buffers buffers = borrowBuffers();
+        try {
+            JsonWriter json = buffers.json;
+            json.reset();
+            json.raw('{');
+            json.name("jti");
+            json.uuid(UUID.randomUUID());
+            if (role != null) {
+                json.raw(',');
+                json.name("role");
+                json.string(role);
+            }
+            if (userId != null) {
+                json.raw(',');
+                json.name("userId");
+                json.number(userId);
+            }
+            if (subject != null) {
+                json.raw(',');
+                json.name("sub");
+                json.string(subject);
+            }
+            json.raw(',');
+            json.name("iat");
+            json.number(issuedAtMillis / 1000);
+            json.raw(',');
+            json.name("exp");
+            json.number(expiresAtMillis / 1000);
+            json.raw('}');
+            
+            int signatureLength = key.getSignatureLength();
+            byte[] token = buffers.token(encodedHeader.length + 1 + Base64Url.encodedLength(json.length)
+                    + 1 + Base64Url.encodedLength(signatureLength) + signatureLength);
+            System.arraycopy(encodedHeader, 0, token, 0, encodedHeader.length);
+            int length = encodedHeader.length;
+            token[length++] = '.';
+            length = Base64Url.encode(json.bytes, 0, json.length, token, length);
+            
+            // The raw signature goes to the end of the buffer and is encoded from there behind the payload
+            int signatureAt = token.length - signatureLength;
+            key.sign(token, length, token, signatureAt);
+            token[length++] = '.';
+            length = Base64Url.encode(token, signatureAt, signatureLength, token, length);
+            return new String(token, 0, length, StandardCharsets.ISO_8859_1);
+        } finally {
+            releaseBuffers(buffers);
+        }
+    }
+    
+    /**
+     * Base64URL of {"kid":...,"alg":...} for the key, recomputed only when the active key changes
+     */
+    private byte[] encodedHeader(SigningKey key) {
+        EncodedHeader current = header;
+        if (current != null && current.key == key) {
+            return current.encoded;
+        }
+        JsonWriter json = new JsonWriter();
+        json.raw('{');
+        json.name("kid");
+        json.string(key.getKid());
+        json.raw(',');
+        json.name("alg");
+        json.string(key.getAlgorithm());
+        json.raw('}');
+        byte[] encoded = new byte[Base64Url.encodedLength(json.length)];
+        Base64Url.encode(json.bytes, 0, json.length, encoded, 0);
+        header = new EncodedHeader(key, encoded);
+        return encoded;
+    }
+    
+    private Buffers borrowBuffers() {
+        Buffers buffers = bufferPool.poll();
+        if (buffers != null) {
+            pooledBuffers.decrementAndGet();
+            return buffers;
+        }
+        return new Buffers();
+    }
+    
+    private void releaseBuffers(Buffers buffers) {
+        if (pooledBuffers.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            bufferPool.offer(buffers);
+        } else {
+            pooledBuffers.decrementAndGet();
+        }
+    }
+    
+    private static final class EncodedHeader {
+        
+        private final SigningKey key;
+        private final byte[] encoded;
+        
+        EncodedHeader(SigningKey key, byte[] encoded) {
+            this.key = key;
+            this.encoded = encoded;
+        }
+    }
+    
+    private static final class Buffers {
+        
+        private final JsonWriter json = new JsonWriter();
+        private byte[] token = new byte[512];
+        
+        byte[] token(int size) {
+            if (token.length < size) {
+                token = new byte[Math.max(size, token.length * 2)];
+            }
+            return token;
+        }
+    }
+    
+    /**
+     * Just enough of a UTF-8 JSON writer for flat objects of strings and numbers
+     */
+    private static final class JsonWriter {
+        
+        private byte[] bytes = new byte[256];
+        private int length;
+        
+        void reset() {
+            length = 0;
+        }
+        
+        void raw(char c) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+        }
+        
+        void name(String name) {
+            string(name);
+            raw(':');
+        }
+        
+        void string(String value) {
+            // Worst case is six bytes per char, for escaped control chars
+            ensure(value.length() * 6 + 2);
+            bytes[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    bytes[length++] = '\\';
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    bytes[length++] = '\\';
+                    bytes[length++] = 'u';
+                    bytes[length++] = '0';
+                    bytes[length++] = '0';
+                    bytes[length++] = HEX[c >> 4];
+                    bytes[length++] = HEX[c & 0xf];
+                } else if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xc0 | c >> 6);
+                    bytes[length++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xf0 | codePoint >> 18);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                    bytes[length++] = (byte) (0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate, replaced like String.getBytes does
+                    bytes[length++] = '?';
+                } else {
+                    bytes[length++] = (byte) (0xe0 | c >> 12);
+                    bytes[length++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    bytes[length++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            bytes[length++] = '"';
+        }
+        
+        void number(long value) {
+            ensure(20);
+            if (value == Long.MIN_VALUE) {
+                byte[] digits = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(digits, 0, bytes, length, digits.length);
+                length += digits.length;
+                return;
+            }
+            if (value < 0) {
+                bytes[length++] = '-';
+                value = -value;
+            }
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            // Digits were written least significant first
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte digit = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = digit;
+            }
+        }
+        
+        void uuid(UUID uuid) {
+            ensure(38);
+            bytes[length++] = '"';
+            hex(uuid.getMostSignificantBits() >>> 32, 8);
+            bytes[length++] = '-';
+            hex(uuid.getMostSignificantBits() >>> 16, 4);
+            bytes[length++] = '-';
+            hex(uuid.getMostSignificantBits(), 4);
+            bytes[length++] = '-';
+            hex(uuid.getLeastSignificantBits() >>> 48, 4);
+            bytes[length++] = '-';
+            hex(uuid.getLeastSignificantBits(), 12);
+            bytes[length++] = '"';
+        }
+        
+        /**
+         * The lowest {@code digits} hex digits of value, most significant first
+         */
+        private void hex(long value, int digits) {
+            for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+                bytes[length++] = HEX[(int) (value >>> shift) & 0xf];
+            }
+        }
+        
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + extra, bytes.length * 2));
+            }
+        }
+    }
+}
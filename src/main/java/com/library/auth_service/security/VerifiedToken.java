@@ -0,0 +1,49 @@
+package com.library.auth_service.security;
+
+/**
+ * Claims of a token whose signature and expiry have already been verified
+ */
+public final class VerifiedToken {
+    
+    private final String username;
+    private final String role;
+    private final Long userId;
+    private final String tokenId;
+    private final long expiresAtMillis;
+    private final String keyId;
+    
+    public VerifiedToken(String username, String role, Long userId, String tokenId, long expiresAtMillis,
+                         String keyId) {
+        this.username = username;
+        this.role = role;
+        this.userId = userId;
+        this.tokenId = tokenId;
+        this.expiresAtMillis = expiresAtMillis;
+        this.keyId = keyId;
+    }
+    
+    public String getUsername() { return username; }
+    
+    public String getRole() { return role; }
+    
+    public Long getUserId() { return userId; }
+    
+    /**
+     * jti claim, or null for tokens issued before token ids were introduced
+     */
+    public String getTokenId() { return tokenId; }
+    
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+    
+    /**
+     * kid header of the key that verified the token, or null for tokens signed with the legacy key
+     */
+    public String getKeyId() { return keyId; }
+    
+    /**
+     * Same boundary as the JWT parser: a token is still valid at its exact exp instant
+     */
+    public boolean isExpired(long nowMillis) {
+        return nowMillis > expiresAtMillis;
+    }
+}
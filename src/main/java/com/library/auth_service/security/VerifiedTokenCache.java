@@ -0,0 +1,149 @@
+package com.library.auth_service.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of already verified tokens.
+ * Entries are keyed by the SHA-256 digest of the token (the raw token is never stored),
+ * expire no later than the token's own exp claim and are evicted once the cache
+ * grows past its configured size. An entry is also dropped once the key that verified it
+ * has been removed from the key ring, so retiring a key takes effect for cached tokens too.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+    
+    private final SigningKeyRing keyRing;
+    private final ConcurrentHashMap<TokenDigest, VerifiedToken> entries = new ConcurrentHashMap<>();
+    private final CacheEvictor<TokenDigest, VerifiedToken> evictor =
+            new CacheEvictor<>(entries, VerifiedToken::isExpired);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    @Value("${jwt.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+    
+    public VerifiedTokenCache(SigningKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+    
+    /**
+     * Return the cached claims for a token, or null if the token has not been verified yet
+     */
+    public VerifiedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        TokenDigest key = TokenDigest.of(token);
+        VerifiedToken verified = entries.get(key);
+        if (verified == null) {
+            misses.increment();
+            return null;
+        }
+        if (verified.isExpired(System.currentTimeMillis()) || keyRing.resolve(verified.getKeyId()) == null) {
+            evictor.remove(key, verified);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return verified;
+    }
+    
+    /**
+     * Remember a token whose signature and expiry have just been verified
+     */
+    public void put(String token, VerifiedToken verified) {
+        if (!enabled) {
+            return;
+        }
+        entries.put(TokenDigest.of(token), verified);
+        evictor.trim(maxSize);
+    }
+    
+    public int size() { return entries.size(); }
+    
+    public long getHits() { return hits.sum(); }
+    
+    public long getMisses() { return misses.sum(); }
+    
+    public long getEvictions() { return evictor.getEvictions(); }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.token.cache.gets", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Token validations by verified-token cache result")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.gets", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Token validations by verified-token cache result")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.evictions", evictor, CacheEvictor::getEvictions)
+                .description("Entries removed from the verified-token cache because of size, expiry or a retired key")
+                .register(registry);
+        Gauge.builder("auth.token.cache.size", entries, Map::size)
+                .description("Number of tokens currently held in the verified-token cache")
+                .register(registry);
+    }
+    
+    /**
+     * SHA-256 digest of a token packed into four longs
+     */
+    private static final class TokenDigest {
+        
+        private final long h0;
+        private final long h1;
+        private final long h2;
+        private final long h3;
+        
+        private TokenDigest(long h0, long h1, long h2, long h3) {
+            this.h0 = h0;
+            this.h1 = h1;
+            this.h2 = h2;
+            this.h3 = h3;
+        }
+        
+        static TokenDigest of(String token) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256")
+                        .digest(token.getBytes(StandardCharsets.UTF_8));
+                ByteBuffer buffer = ByteBuffer.wrap(hash);
+                return new TokenDigest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TokenDigest other)) {
+                return false;
+            }
+            return h0 == other.h0 && h1 == other.h1 && h2 == other.h2 && h3 == other.h3;
+        }
+        
+        @Override
+        public int hashCode() {
+            // The digest is already uniformly distributed
+            return (int) h0;
+        }
+    }
+}
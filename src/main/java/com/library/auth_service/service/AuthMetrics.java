@@ -0,0 +1,110 @@
+package com.library.auth_service.service;
+
+import com.library.auth_service.exception.AuthenticationException;
+import com.library.auth_service.exception.PendingApprovalException;
+import com.library.auth_service.exception.TooManyRequestsException;
+import com.library.auth_service.security.TokenIntrospection.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency timers for login, register and token validation, tagged by outcome
+ *
+ * auth.login / auth.register{outcome} and auth.validate{outcome}, where the validate outcome
+ * is the introspection status (valid, expired, revoked, ...). The timers for every possible outcome
+ * are registered up front, so they are scraped from zero and recording never looks a meter up.
+ * Histogram buckets are enabled in application.yaml.
+ */
+@Component
+public class AuthMetrics {
+    
+    public enum Outcome {
+        SUCCESS,
+        INVALID_CREDENTIALS,
+        PENDING_APPROVAL,
+        CONFLICT,
+        RATE_LIMITED,
+        UPSTREAM_ERROR;
+        
+        private final String tag = name().toLowerCase(Locale.ROOT);
+        
+        public String getTag() { return tag; }
+        
+        /**
+         * Outcome of a call that failed with error, or succeeded if null
+         * rejected is the outcome of an AuthenticationException (bad credentials, or a taken username on register)
+         */
+        public static Outcome of(Throwable error, Outcome rejected) {
+            if (error == null) {
+                return SUCCESS;
+            }
+            if (error instanceof PendingApprovalException) {
+                return PENDING_APPROVAL;
+            }
+            if (error instanceof AuthenticationException) {
+                return rejected;
+            }
+            if (error instanceof TooManyRequestsException) {
+                return RATE_LIMITED;
+            }
+            // UserServiceException, open circuit breaker, full bulkhead and anything unexpected
+            return UPSTREAM_ERROR;
+        }
+    }
+    
+    private final Map<Outcome, Timer> login;
+    private final Map<Outcome, Timer> register;
+    private final Map<Status, Timer> validate = new EnumMap<>(Status.class);
+    
+    public AuthMetrics(MeterRegistry registry) {
+        login = timers(registry, "auth.login", "Login requests, including the user-service call",
+                EnumSet.complementOf(EnumSet.of(Outcome.CONFLICT)));
+        register = timers(registry, "auth.register", "Registration requests, including the user-service call",
+                EnumSet.of(Outcome.SUCCESS, Outcome.PENDING_APPROVAL, Outcome.CONFLICT, Outcome.UPSTREAM_ERROR));
+        for (Status status : Status.values()) {
+            validate.put(status, Timer.builder("auth.validate")
+                    .description("Token validations")
+                    .tag("outcome", status.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+    }
+    
+    /**
+     * Record a login that started at startNanos (System.nanoTime)
+     */
+    public void recordLogin(long startNanos, Outcome outcome) {
+        record(login, outcome, startNanos);
+    }
+    
+    public void recordRegister(long startNanos, Outcome outcome) {
+        record(register, outcome, startNanos);
+    }
+    
+    public void recordValidation(long startNanos, Status status) {
+        validate.get(status).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private static void record(Map<Outcome, Timer> timers, Outcome outcome, long startNanos) {
+        Timer timer = timers.getOrDefault(outcome, timers.get(Outcome.UPSTREAM_ERROR));
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private static Map<Outcome, Timer> timers(MeterRegistry registry, String name, String description,
+                                              EnumSet<Outcome> outcomes) {
+        Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+        for (Outcome outcome : outcomes) {
+            timers.put(outcome, Timer.builder(name)
+                    .description(description)
+                    .tag("outcome", outcome.tag)
+                    .register(registry));
+        }
+        return timers;
+    }
+}
@@ -1,53 +1,91 @@
 package com.library.auth_service.service;
 
+import com.library.auth_service.client.UserServiceClient;
+import com.library.auth_service.client.UserServiceCodec;
+import com.library.auth_service.audit.AuditEvent;
+import com.library.auth_service.audit.AuditPublisher;
 import com.library.auth_service.dto.*;
+import com.library.auth_service.exception.AccountBlockedException;
 import com.library.auth_service.exception.AuthenticationException;
+import com.library.auth_service.exception.PendingApprovalException;
 import com.library.auth_service.exception.UserServiceException;
+import com.library.auth_service.logging.SampledLogger;
+import com.library.auth_service.security.CredentialCache;
 import com.library.auth_service.security.JwtUtil;
+import com.library.auth_service.security.LoginRateLimiter;
+import com.library.auth_service.service.AuthMetrics.Outcome;
+import com.library.auth_service.userstatus.UserStatus;
+import com.library.auth_service.userstatus.UserStatusCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.Map;
+import java.io.IOException;
+import java.time.Duration;
 
 /**
  * Service for handling authentication operations
  * Communicates with user-service for user operations
  */
 @Service
+@Profile("!reactive")
 public class AuthService {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+    // Failed logins and user-service outages come in bursts: log a few lines per interval, count the rest
+    private static final SampledLogger authFailureLog =
+            new SampledLogger(logger, "authentication failure messages", 10, Duration.ofSeconds(10));
+    private static final SampledLogger userServiceErrorLog =
+            new SampledLogger(logger, "user service error messages", 10, Duration.ofSeconds(10));
     
-    private final RestTemplate restTemplate;
+    private final UserServiceClient userServiceClient;
     private final JwtUtil jwtUtil;
-    private final ObjectMapper objectMapper;
+    private final LoginRateLimiter loginRateLimiter;
+    private final TokenRefreshService tokenRefreshService;
+    private final AuthMetrics authMetrics;
+    private final AuditPublisher auditPublisher;
+    private final UserServiceCodec userServiceCodec;
+    private final CredentialCache credentialCache;
+    private final UserStatusCache userStatusCache;
+    private final SingleFlight<CredentialKey, ResponseEntity<UserResponse>> credentialChecks = new SingleFlight<>();
     
-    @Value("${user-service.url}")
-    private String userServiceUrl;
-    
-    public AuthService(RestTemplate restTemplate, JwtUtil jwtUtil) {
-        this.restTemplate = restTemplate;
+    public AuthService(UserServiceClient userServiceClient, JwtUtil jwtUtil,
+                       LoginRateLimiter loginRateLimiter, TokenRefreshService tokenRefreshService,
+                       AuthMetrics authMetrics, AuditPublisher auditPublisher,
+                       UserServiceCodec userServiceCodec, CredentialCache credentialCache,
+                       UserStatusCache userStatusCache) {
+        this.userServiceClient = userServiceClient;
         this.jwtUtil = jwtUtil;
-        this.objectMapper = new ObjectMapper();
+        this.loginRateLimiter = loginRateLimiter;
+        this.tokenRefreshService = tokenRefreshService;
+        this.authMetrics = authMetrics;
+        this.auditPublisher = auditPublisher;
+        this.userServiceCodec = userServiceCodec;
+        this.credentialCache = credentialCache;
+        this.userStatusCache = userStatusCache;
     }
     
     /**
      * Register a new user
      */
     public AuthResponse register(RegisterRequest request) {
-        logger.info("Attempting to register user: {}", request.getUsername());
+        long start = System.nanoTime();
+        try {
+            AuthResponse response = createUser(request);
+            recordRegister(request, start, response, null);
+            return response;
+        } catch (RuntimeException e) {
+            recordRegister(request, start, null, e);
+            throw e;
+        }
+    }
+    
+    private AuthResponse createUser(RegisterRequest request) {
+        logger.debug("Attempting to register user: {}", request.getUsername());
         
         try {
             // Create user in user-service
@@ -58,23 +96,14 @@ public class AuthService {
                 request.getRole()
             );
             
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<CreateUserRequest> entity = new HttpEntity<>(createUserRequest, headers);
-            
-            ResponseEntity<UserResponse> response = restTemplate.exchange(
-                userServiceUrl + "/api/users/internal/create",
-                HttpMethod.POST,
-                entity,
-                UserResponse.class
-            );
+            ResponseEntity<UserResponse> response = userServiceClient.createUser(createUserRequest);
             
             if (response.getStatusCode() == HttpStatus.CREATED && response.getBody() != null) {
                 UserResponse user = response.getBody();
                 
                 // Check if user is pending approval
                 if (user.isPendingApproval()) {
-                    throw new AuthenticationException("Registration successful. Your account is pending approval. Please wait for an administrator to approve it.");
+                    throw new PendingApprovalException("Registration successful. Your account is pending approval. Please wait for an administrator to approve it.");
                 }
                 
                 // Generate JWT token
@@ -85,32 +114,58 @@ public class AuthService {
                 );
                 
                 logger.info("User registered successfully: {}", user.getUsername());
-                return new AuthResponse(token, user);
+                return new AuthResponse(token, tokenRefreshService.issue(user), user);
             } else {
                 throw new UserServiceException("Failed to create user");
             }
             
         } catch (HttpClientErrorException e) {
-            logger.error("Error creating user: {}", e.getMessage());
+            authFailureLog.warn("Error creating user: {}", e.getMessage());
             if (e.getStatusCode() == HttpStatus.CONFLICT) {
                 throw new AuthenticationException("Username or email already exists");
             }
             throw new UserServiceException("Failed to communicate with user service: " + e.getMessage());
         } catch (org.springframework.web.client.HttpServerErrorException e) {
-            logger.error("User service returned server error: {}", e.getMessage());
+            userServiceErrorLog.error("User service returned server error: {}", e.getMessage());
             String errorMessage = extractErrorMessage(e);
             throw new UserServiceException("User service error: " + errorMessage);
         } catch (RestClientException e) {
-            logger.error("Error communicating with user service: ", e);
+            userServiceErrorLog.error("Error communicating with user service: ", e);
             throw new UserServiceException("User service is unavailable");
         }
     }
     
     /**
      * Login user
+     * Identical concurrent logins (same username and password) share one user-service call;
+     * each caller still gets its own token.
+     * Attempts over the username / client IP limits are rejected before user-service is called.
+     * With the credential cache enabled, a repeat login within its TTL is verified locally.
      */
-    public AuthResponse login(LoginRequest request) {
-        logger.info("Login attempt for user: {}", request.getUsername());
+    public AuthResponse login(LoginRequest request, String clientIp) {
+        long start = System.nanoTime();
+        try {
+            AuthResponse response = authenticate(request, clientIp);
+            recordLogin(request, clientIp, start, response, null);
+            return response;
+        } catch (RuntimeException e) {
+            recordLogin(request, clientIp, start, null, e);
+            throw e;
+        }
+    }
+    
+    private AuthResponse authenticate(LoginRequest request, String clientIp) {
+        logger.debug("Login attempt for user: {}", request.getUsername());
+        
+        loginRateLimiter.acquire(request.getUsername(), clientIp);
+        
+        // Only logins that passed the account checks below are cached; a user blocked since is checked by user-service again
+        UserResponse cached = credentialCache.verify(request.getUsername(), request.getPassword());
+        if (cached != null && !userStatusCache.isBlocked(cached.getId())) {
+            loginRateLimiter.recordSuccess(request.getUsername());
+            logger.debug("User logged in from the credential cache: {}", cached.getUsername());
+            return issueToken(cached);
+        }
         
         try {
             // Validate credentials with user-service
@@ -119,81 +174,95 @@ public class AuthService {
                 request.getPassword()
             );
             
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<ValidateCredentialsRequest> entity = new HttpEntity<>(validateRequest, headers);
-            
-            ResponseEntity<UserResponse> response = restTemplate.exchange(
-                userServiceUrl + "/api/users/internal/validate",
-                HttpMethod.POST,
-                entity,
-                UserResponse.class
+            ResponseEntity<UserResponse> response = credentialChecks.execute(
+                CredentialKey.of(request.getUsername(), request.getPassword()),
+                () -> userServiceClient.validateCredentials(validateRequest)
             );
             
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 UserResponse user = response.getBody();
+                userStatusCache.update(user);
                 
                 // Check if user is pending approval
                 if (user.isPendingApproval()) {
-                    throw new AuthenticationException("Your account is pending approval. Please contact an administrator.");
+                    throw new PendingApprovalException("Your account is pending approval. Please contact an administrator.");
+                }
+                
+                // Restricted and rejected accounts get no tokens, which validation would reject on first use
+                if (UserStatus.of(user).isBlocked()) {
+                    throw new AccountBlockedException(user.isRejected()
+                            ? "Your account has been rejected. Please contact an administrator."
+                            : "Your account is restricted. Please contact an administrator.");
                 }
-
-                // Generate JWT token
-                String token = jwtUtil.generateToken(
-                    user.getUsername(),
-                    user.getRole(),
-                    user.getId()
-                );
                 
-                logger.info("User logged in successfully: {}", user.getUsername());
-                return new AuthResponse(token, user);
+                credentialCache.put(request.getUsername(), request.getPassword(), user);
+                loginRateLimiter.recordSuccess(request.getUsername());
+                logger.debug("User logged in successfully: {}", user.getUsername());
+                return issueToken(user);
             } else {
+                credentialCache.invalidate(request.getUsername());
                 throw new AuthenticationException("Invalid username or password");
             }
             
         } catch (HttpClientErrorException e) {
-            logger.error("Authentication failed: {}", e.getMessage());
+            authFailureLog.warn("Authentication failed: {}", e.getMessage());
             if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+                credentialCache.invalidate(request.getUsername());
+                loginRateLimiter.recordFailure(request.getUsername(), clientIp);
                 // Try to extract the actual error message from user-service response
                 String errorMessage = extractErrorMessage(e);
                 throw new AuthenticationException(errorMessage);
             }
             throw new UserServiceException("Failed to communicate with user service");
         } catch (org.springframework.web.client.HttpServerErrorException e) {
-            logger.error("User service returned server error: {}", e.getMessage());
+            userServiceErrorLog.error("User service returned server error: {}", e.getMessage());
             String errorMessage = extractErrorMessage(e);
             throw new UserServiceException("User service error: " + errorMessage);
         } catch (RestClientException e) {
-            logger.error("Error communicating with user service: ", e);
+            userServiceErrorLog.error("Error communicating with user service: ", e);
             throw new UserServiceException("User service is unavailable");
         }
     }
     
+    private AuthResponse issueToken(UserResponse user) {
+        String token = jwtUtil.generateToken(
+            user.getUsername(),
+            user.getRole(),
+            user.getId()
+        );
+        return new AuthResponse(token, tokenRefreshService.issue(user), user);
+    }
+    
+    /**
+     * Time the login and add it to the audit log
+     */
+    private void recordLogin(LoginRequest request, String clientIp, long start, AuthResponse response, Throwable error) {
+        Outcome outcome = Outcome.of(error, Outcome.INVALID_CREDENTIALS);
+        authMetrics.recordLogin(start, outcome);
+        auditPublisher.record(new AuditEvent(AuditEvent.Type.LOGIN, outcome.getTag(), request.getUsername(),
+                response != null ? response.getUser().getId() : null, clientIp));
+    }
+    
+    /**
+     * Time the registration and add it to the audit log; an AuthenticationException means the username is taken
+     */
+    private void recordRegister(RegisterRequest request, long start, AuthResponse response, Throwable error) {
+        Outcome outcome = Outcome.of(error, Outcome.CONFLICT);
+        authMetrics.recordRegister(start, outcome);
+        auditPublisher.record(new AuditEvent(AuditEvent.Type.REGISTER, outcome.getTag(), request.getUsername(),
+                response != null ? response.getUser().getId() : null, null));
+    }
+    
     /**
      * Extract error message from RestClientResponseException response body
      */
     private String extractErrorMessage(org.springframework.web.client.RestClientResponseException e) {
         try {
-            String responseBody = e.getResponseBodyAsString();
-            if (responseBody != null && !responseBody.isEmpty()) {
-                Map<String, Object> errorResponse = objectMapper.readValue(
-                    responseBody, 
-                    new TypeReference<Map<String, Object>>() {}
-                );
-                if (errorResponse.containsKey("message")) {
-                    Object message = errorResponse.get("message");
-                    if (message != null) {
-                        return message.toString();
-                    }
-                }
-                if (errorResponse.containsKey("error")) {
-                    Object error = errorResponse.get("error");
-                    if (error != null) {
-                        return error.toString();
-                    }
-                }
+            String message = userServiceCodec.readErrorMessage(e.getResponseBodyAsByteArray());
+            if (message != null) {
+                return message;
             }
-        } catch (Exception ex) {
+        } catch (IOException ex) {
             logger.warn("Failed to parse error response: {}", ex.getMessage());
         }
         // Default message if extraction fails
@@ -0,0 +1,48 @@
+package com.library.auth_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Identity of a credential check: the username plus a SHA-256 digest of the password
+ * Used to coalesce identical concurrent logins without keeping the plain password as a map key
+ */
+final class CredentialKey {
+    
+    private final String username;
+    private final byte[] passwordDigest;
+    private final int hash;
+    
+    private CredentialKey(String username, byte[] passwordDigest) {
+        this.username = username;
+        this.passwordDigest = passwordDigest;
+        this.hash = 31 * username.hashCode() + Arrays.hashCode(passwordDigest);
+    }
+    
+    static CredentialKey of(String username, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return new CredentialKey(username, digest.digest(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CredentialKey other)) {
+            return false;
+        }
+        return username.equals(other.username) && MessageDigest.isEqual(passwordDigest, other.passwordDigest);
+    }
+    
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
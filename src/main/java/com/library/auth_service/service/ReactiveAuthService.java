@@ -0,0 +1,291 @@
+package com.library.auth_service.service;
+
+import com.library.auth_service.client.ReactiveUserServiceClient;
+import com.library.auth_service.client.UserServiceCodec;
+import com.library.auth_service.audit.AuditEvent;
+import com.library.auth_service.audit.AuditPublisher;
+import com.library.auth_service.dto.*;
+import com.library.auth_service.exception.AccountBlockedException;
+import com.library.auth_service.exception.AuthenticationException;
+import com.library.auth_service.exception.PendingApprovalException;
+import com.library.auth_service.exception.UserServiceException;
+import com.library.auth_service.logging.SampledLogger;
+import com.library.auth_service.security.CredentialCache;
+import com.library.auth_service.security.JwtUtil;
+import com.library.auth_service.security.LoginRateLimiter;
+import com.library.auth_service.service.AuthMetrics.Outcome;
+import com.library.auth_service.userstatus.UserStatus;
+import com.library.auth_service.userstatus.UserStatusCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Non-blocking counterpart of AuthService for the reactive profile
+ * Same flow and error mapping, with user-service calls made through WebClient
+ */
+@Service
+@Profile("reactive")
+public class ReactiveAuthService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveAuthService.class);
+    // Failed logins and user-service outages come in bursts: log a few lines per interval, count the rest
+    private static final SampledLogger authFailureLog =
+            new SampledLogger(logger, "authentication failure messages", 10, Duration.ofSeconds(10));
+    private static final SampledLogger userServiceErrorLog =
+            new SampledLogger(logger, "user service error messages", 10, Duration.ofSeconds(10));
+    
+    private final ReactiveUserServiceClient userServiceClient;
+    private final JwtUtil jwtUtil;
+    private final LoginRateLimiter loginRateLimiter;
+    private final TokenRefreshService tokenRefreshService;
+    private final AuthMetrics authMetrics;
+    private final AuditPublisher auditPublisher;
+    private final UserServiceCodec userServiceCodec;
+    private final CredentialCache credentialCache;
+    private final UserStatusCache userStatusCache;
+    private final SingleFlight<CredentialKey, ResponseEntity<UserResponse>> credentialChecks = new SingleFlight<>();
+    
+    public ReactiveAuthService(ReactiveUserServiceClient userServiceClient, JwtUtil jwtUtil,
+                               LoginRateLimiter loginRateLimiter, TokenRefreshService tokenRefreshService,
+                               AuthMetrics authMetrics, AuditPublisher auditPublisher,
+                               UserServiceCodec userServiceCodec, CredentialCache credentialCache,
+                               UserStatusCache userStatusCache) {
+        this.userServiceClient = userServiceClient;
+        this.jwtUtil = jwtUtil;
+        this.loginRateLimiter = loginRateLimiter;
+        this.tokenRefreshService = tokenRefreshService;
+        this.authMetrics = authMetrics;
+        this.auditPublisher = auditPublisher;
+        this.userServiceCodec = userServiceCodec;
+        this.credentialCache = credentialCache;
+        this.userStatusCache = userStatusCache;
+    }
+    
+    /**
+     * Register a new user
+     */
+    public Mono<AuthResponse> register(RegisterRequest request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return createUser(request)
+                    .doOnSuccess(response -> recordRegister(request, start, response, null))
+                    .doOnError(e -> recordRegister(request, start, null, e));
+        });
+    }
+    
+    private Mono<AuthResponse> createUser(RegisterRequest request) {
+        logger.debug("Attempting to register user: {}", request.getUsername());
+        
+        CreateUserRequest createUserRequest = new CreateUserRequest(
+            request.getUsername(),
+            request.getEmail(),
+            request.getPassword(),
+            request.getRole()
+        );
+        
+        return userServiceClient.createUser(createUserRequest)
+                .flatMap(response -> {
+                    if (response.getStatusCode() == HttpStatus.CREATED && response.getBody() != null) {
+                        UserResponse user = response.getBody();
+                        
+                        // Check if user is pending approval
+                        if (user.isPendingApproval()) {
+                            throw new PendingApprovalException("Registration successful. Your account is pending approval. Please wait for an administrator to approve it.");
+                        }
+                        
+                        logger.info("User registered successfully: {}", user.getUsername());
+                        return issueToken(user);
+                    }
+                    throw new UserServiceException("Failed to create user");
+                })
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    if (e.getStatusCode().is4xxClientError()) {
+                        authFailureLog.warn("Error creating user: {}", e.getMessage());
+                        if (e.getStatusCode() == HttpStatus.CONFLICT) {
+                            return new AuthenticationException("Username or email already exists");
+                        }
+                        return new UserServiceException("Failed to communicate with user service: " + e.getMessage());
+                    }
+                    userServiceErrorLog.error("User service returned server error: {}", e.getMessage());
+                    return new UserServiceException("User service error: " + extractErrorMessage(e));
+                })
+                .onErrorMap(WebClientRequestException.class, this::unavailable);
+    }
+    
+    /**
+     * Login user
+     * Identical concurrent logins (same username and password) share one user-service call;
+     * each caller still gets its own token.
+     * Attempts over the username / client IP limits are rejected before user-service is called.
+     * With the credential cache enabled, a repeat login within its TTL is verified locally.
+     */
+    public Mono<AuthResponse> login(LoginRequest request, String clientIp) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return authenticate(request, clientIp)
+                    .doOnSuccess(response -> recordLogin(request, clientIp, start, response, null))
+                    .doOnError(e -> recordLogin(request, clientIp, start, null, e));
+        });
+    }
+    
+    private Mono<AuthResponse> authenticate(LoginRequest request, String clientIp) {
+        logger.debug("Login attempt for user: {}", request.getUsername());
+        
+        ValidateCredentialsRequest validateRequest = new ValidateCredentialsRequest(
+            request.getUsername(),
+            request.getPassword()
+        );
+        
+        // Only logins that passed the account checks below are cached; a user blocked since is checked by user-service again
+        Mono<AuthResponse> fromCache = cachedUser(request)
+                .filter(user -> !userStatusCache.isBlocked(user.getId()))
+                .flatMap(user -> {
+                    loginRateLimiter.recordSuccess(request.getUsername());
+                    logger.debug("User logged in from the credential cache: {}", user.getUsername());
+                    return issueToken(user);
+                });
+        
+        return Mono.fromRunnable(() -> loginRateLimiter.acquire(request.getUsername(), clientIp))
+                .then(fromCache)
+                .switchIfEmpty(Mono.defer(() -> checkWithUserService(request, clientIp, validateRequest)));
+    }
+    
+    private Mono<AuthResponse> checkWithUserService(LoginRequest request, String clientIp,
+                                                    ValidateCredentialsRequest validateRequest) {
+        return credentialChecks.executeAsync(
+                        CredentialKey.of(request.getUsername(), request.getPassword()),
+                        () -> userServiceClient.validateCredentials(validateRequest))
+                .flatMap(response -> {
+                    if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                        UserResponse user = response.getBody();
+                        userStatusCache.update(user);
+                        
+                        // Check if user is pending approval
+                        if (user.isPendingApproval()) {
+                            throw new PendingApprovalException("Your account is pending approval. Please contact an administrator.");
+                        }
+                        
+                        // Restricted and rejected accounts get no tokens, which validation would reject on first use
+                        if (UserStatus.of(user).isBlocked()) {
+                            throw new AccountBlockedException(user.isRejected()
+                                    ? "Your account has been rejected. Please contact an administrator."
+                                    : "Your account is restricted. Please contact an administrator.");
+                        }
+                        
+                        return cacheUser(request, user).then(Mono.defer(() -> {
+                            loginRateLimiter.recordSuccess(request.getUsername());
+                            logger.debug("User logged in successfully: {}", user.getUsername());
+                            return issueToken(user);
+                        }));
+                    }
+                    credentialCache.invalidate(request.getUsername());
+                    return Mono.<AuthResponse>error(new AuthenticationException("Invalid username or password"));
+                })
+                .switchIfEmpty(Mono.error(() -> {
+                    credentialCache.invalidate(request.getUsername());
+                    return new AuthenticationException("Invalid username or password");
+                }))
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    if (e.getStatusCode().is4xxClientError()) {
+                        authFailureLog.warn("Authentication failed: {}", e.getMessage());
+                        if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+                            credentialCache.invalidate(request.getUsername());
+                            loginRateLimiter.recordFailure(request.getUsername(), clientIp);
+                            // Try to extract the actual error message from user-service response
+                            return new AuthenticationException(extractErrorMessage(e));
+                        }
+                        return new UserServiceException("Failed to communicate with user service");
+                    }
+                    userServiceErrorLog.error("User service returned server error: {}", e.getMessage());
+                    return new UserServiceException("User service error: " + extractErrorMessage(e));
+                })
+                .onErrorMap(WebClientRequestException.class, this::unavailable);
+    }
+    
+    /**
+     * The cached user if the password matches its verifier
+     * The verifier is a deliberately slow hash, so it is computed on the parallel scheduler rather than the event loop
+     */
+    private Mono<UserResponse> cachedUser(LoginRequest request) {
+        if (!credentialCache.isEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> credentialCache.verify(request.getUsername(), request.getPassword()))
+                .subscribeOn(Schedulers.parallel());
+    }
+    
+    private Mono<Void> cacheUser(LoginRequest request, UserResponse user) {
+        if (!credentialCache.isEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.<Void>fromRunnable(() -> credentialCache.put(request.getUsername(), request.getPassword(), user))
+                .subscribeOn(Schedulers.parallel());
+    }
+    
+    /**
+     * Time the login and add it to the audit log
+     */
+    private void recordLogin(LoginRequest request, String clientIp, long start, AuthResponse response, Throwable error) {
+        Outcome outcome = Outcome.of(error, Outcome.INVALID_CREDENTIALS);
+        authMetrics.recordLogin(start, outcome);
+        auditPublisher.record(new AuditEvent(AuditEvent.Type.LOGIN, outcome.getTag(), request.getUsername(),
+                response != null ? response.getUser().getId() : null, clientIp));
+    }
+    
+    /**
+     * Time the registration and add it to the audit log; an AuthenticationException means the username is taken
+     */
+    private void recordRegister(RegisterRequest request, long start, AuthResponse response, Throwable error) {
+        Outcome outcome = Outcome.of(error, Outcome.CONFLICT);
+        authMetrics.recordRegister(start, outcome);
+        auditPublisher.record(new AuditEvent(AuditEvent.Type.REGISTER, outcome.getTag(), request.getUsername(),
+                response != null ? response.getUser().getId() : null, null));
+    }
+    
+    /**
+     * Access and refresh token for user
+     * The refresh token store may append to its log file, so like /refresh this runs off the event loop
+     */
+    private Mono<AuthResponse> issueToken(UserResponse user) {
+        return Mono.fromCallable(() -> {
+                    String token = jwtUtil.generateToken(
+                        user.getUsername(),
+                        user.getRole(),
+                        user.getId()
+                    );
+                    return new AuthResponse(token, tokenRefreshService.issue(user), user);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    private Throwable unavailable(WebClientRequestException e) {
+        userServiceErrorLog.error("Error communicating with user service: ", e);
+        return new UserServiceException("User service is unavailable");
+    }
+    
+    /**
+     * Extract error message from WebClientResponseException response body
+     */
+    private String extractErrorMessage(WebClientResponseException e) {
+        try {
+            String message = userServiceCodec.readErrorMessage(e.getResponseBodyAsByteArray());
+            if (message != null) {
+                return message;
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to parse error response: {}", ex.getMessage());
+        }
+        // Default message if extraction fails
+        return e.getMessage() != null ? e.getMessage() : "An error occurred";
+    }
+}
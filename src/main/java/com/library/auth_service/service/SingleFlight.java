@@ -0,0 +1,79 @@
+package com.library.auth_service.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls that share a key into one execution
+ *
+ * The first caller for a key runs the call; callers arriving while it is in flight wait for
+ * and receive the same result or exception. The key is released as soon as the call finishes,
+ * so later callers always trigger a fresh execution.
+ */
+final class SingleFlight<K, V> {
+    
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    
+    /**
+     * Run call on the calling thread, or wait for the in-flight call with the same key
+     * Exceptions reach every caller unwrapped
+     */
+    V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+        
+        try {
+            V result = call.get();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Non-blocking variant: subscribes to call once per key and shares its outcome
+     * The upstream call is not cancelled when one of the subscribers goes away.
+     */
+    Mono<V> executeAsync(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing != null) {
+                return Mono.fromFuture(existing, true);
+            }
+            
+            flight.whenComplete((result, e) -> inFlight.remove(key, flight));
+            try {
+                call.get().subscribe(flight::complete, flight::completeExceptionally, () -> flight.complete(null));
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+            }
+            return Mono.fromFuture(flight, true);
+        });
+    }
+    
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
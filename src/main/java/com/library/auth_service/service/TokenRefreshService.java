@@ -0,0 +1,61 @@
+package com.library.auth_service.service;
+
+import com.library.auth_service.dto.AuthResponse;
+import com.library.auth_service.dto.UserResponse;
+import com.library.auth_service.exception.AuthenticationException;
+import com.library.auth_service.security.JwtUtil;
+import com.library.auth_service.security.RefreshTokenStore;
+import com.library.auth_service.security.RefreshTokenStore.RefreshGrant;
+import com.library.auth_service.userstatus.UserStatusCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for issuing and redeeming refresh tokens
+ * A refresh mints the new access token locally from the claims recorded at login, without calling user-service
+ */
+@Service
+public class TokenRefreshService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenRefreshService.class);
+    
+    private final RefreshTokenStore refreshTokenStore;
+    private final JwtUtil jwtUtil;
+    private final UserStatusCache userStatusCache;
+    
+    public TokenRefreshService(RefreshTokenStore refreshTokenStore, JwtUtil jwtUtil, UserStatusCache userStatusCache) {
+        this.refreshTokenStore = refreshTokenStore;
+        this.jwtUtil = jwtUtil;
+        this.userStatusCache = userStatusCache;
+    }
+    
+    /**
+     * Start a refresh token family for a user who just logged in or registered
+     */
+    public String issue(UserResponse user) {
+        return refreshTokenStore.issue(user.getUsername(), user.getRole(), user.getId());
+    }
+    
+    /**
+     * Exchange a refresh token for a new access token and the next refresh token
+     * The response carries no user details, only the tokens.
+     * The session of a user blocked since the login is ended instead.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshGrant grant = refreshTokenStore.rotate(refreshToken);
+        if (userStatusCache.isBlocked(grant.getUserId())) {
+            refreshTokenStore.revoke(grant.getRefreshToken());
+            throw new AuthenticationException("User account is restricted, rejected or no longer active");
+        }
+        
+        String token = jwtUtil.generateToken(
+            grant.getUsername(),
+            grant.getRole(),
+            grant.getUserId()
+        );
+        
+        logger.debug("Refreshed access token for user: {}", grant.getUsername());
+        return new AuthResponse(token, grant.getRefreshToken(), null);
+    }
+}
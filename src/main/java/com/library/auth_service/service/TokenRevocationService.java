@@ -0,0 +1,109 @@
+package com.library.auth_service.service;
+
+import com.library.auth_service.dto.RevokeTokenRequest;
+import com.library.auth_service.exception.AuthenticationException;
+import com.library.auth_service.exception.ForbiddenException;
+import com.library.auth_service.exception.InvalidRequestException;
+import com.library.auth_service.security.RefreshTokenStore;
+import com.library.auth_service.security.RevokedTokenStore;
+import com.library.auth_service.security.TokenIntrospection;
+import com.library.auth_service.security.VerifiedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service for logging out and revoking tokens before they expire
+ */
+@Service
+public class TokenRevocationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    
+    private final TokenValidationService tokenValidationService;
+    private final RevokedTokenStore revokedTokens;
+    private final RefreshTokenStore refreshTokenStore;
+    
+    @Value("${jwt.expiration}")
+    private Long expiration;
+    
+    @Value("${auth.revocation.admin-role:ADMIN}")
+    private String adminRole;
+    
+    public TokenRevocationService(TokenValidationService tokenValidationService, RevokedTokenStore revokedTokens,
+                                  RefreshTokenStore refreshTokenStore) {
+        this.tokenValidationService = tokenValidationService;
+        this.revokedTokens = revokedTokens;
+        this.refreshTokenStore = refreshTokenStore;
+    }
+    
+    /**
+     * Revoke the caller's access token and, if given, end the session of its refresh token
+     */
+    public void logout(String authorization, String refreshToken) {
+        VerifiedToken caller = authenticate(authorization);
+        revokedTokens.revoke(caller.getTokenId(), caller.getExpiresAtMillis());
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenStore.revoke(refreshToken);
+        }
+        logger.info("User logged out: {}", caller.getUsername());
+    }
+    
+    /**
+     * Revoke an access or refresh token presented in the request, and/or a list of token ids.
+     * Revoking by id requires an administrator's access token, since the tokens themselves are not presented.
+     */
+    public void revoke(String authorization, RevokeTokenRequest request) {
+        String token = request.getToken();
+        List<String> tokenIds = request.getTokenIds();
+        boolean hasToken = token != null && !token.isBlank();
+        boolean hasTokenIds = tokenIds != null && !tokenIds.isEmpty();
+        if (!hasToken && !hasTokenIds) {
+            throw new InvalidRequestException("Either token or tokenIds is required");
+        }
+        
+        // Authorize the whole request before revoking anything, so a rejected one has no effect
+        VerifiedToken admin = null;
+        if (hasTokenIds) {
+            admin = authenticate(authorization);
+            if (!adminRole.equals(admin.getRole())) {
+                throw new ForbiddenException("Revoking token ids requires the " + adminRole + " role");
+            }
+        }
+        
+        if (hasToken) {
+            TokenIntrospection introspection = tokenValidationService.introspect(token);
+            if (introspection.isValid()) {
+                VerifiedToken verified = introspection.getToken();
+                revokedTokens.revoke(verified.getTokenId(), verified.getExpiresAtMillis());
+            } else {
+                // Not a usable access token, so it may be a refresh token; anything else is already unusable
+                refreshTokenStore.revoke(token);
+            }
+        }
+        
+        if (hasTokenIds) {
+            // Without the tokens their exp is unknown, but none can outlive a full expiration period
+            long until = System.currentTimeMillis() + expiration;
+            for (String tokenId : tokenIds) {
+                revokedTokens.revoke(tokenId, until);
+            }
+            logger.warn("{} revoked {} token id(s)", admin.getUsername(), tokenIds.size());
+        }
+    }
+    
+    private VerifiedToken authenticate(String authorization) {
+        String token = TokenValidationService.bearerToken(authorization);
+        if (token == null) {
+            throw new AuthenticationException("Bearer token is required");
+        }
+        TokenIntrospection introspection = tokenValidationService.introspect(token);
+        if (!introspection.isValid()) {
+            throw new AuthenticationException(introspection.getMessage());
+        }
+        return introspection.getToken();
+    }
+}
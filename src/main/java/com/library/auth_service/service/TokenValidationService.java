@@ -0,0 +1,270 @@
+package com.library.auth_service.service;
+
+import com.library.auth_service.audit.AuditEvent;
+import com.library.auth_service.audit.AuditPublisher;
+import com.library.auth_service.dto.TokenValidationResponse;
+import com.library.auth_service.exception.InvalidRequestException;
+import com.library.auth_service.logging.SampledLogger;
+import com.library.auth_service.security.JwtUtil;
+import com.library.auth_service.security.RevokedTokenStore;
+import com.library.auth_service.security.TokenIntrospection;
+import com.library.auth_service.security.TokenIntrospection.Status;
+import com.library.auth_service.security.VerifiedToken;
+import com.library.auth_service.security.VerifiedTokenCache;
+import com.library.auth_service.userstatus.UserStatusCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for validating JWT tokens
+ * Repeat validations of the same token are answered from the verified-token cache
+ * Each validation is timed as auth.validate, tagged with the introspection status, and audited
+ * Tokens of users blocked since they logged in are rejected through the local user status cache
+ */
+@Service
+public class TokenValidationService {
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    // Expired and forged tokens are routine and can arrive in floods, so only a few are logged per interval
+    private static final SampledLogger rejectedTokenLog = new SampledLogger(
+            LoggerFactory.getLogger(TokenValidationService.class), "rejected token messages", 10, Duration.ofSeconds(10));
+    
+    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
+    private final RevokedTokenStore revokedTokens;
+    private final AuthMetrics authMetrics;
+    private final AuditPublisher auditPublisher;
+    private final UserStatusCache userStatusCache;
+    
+    @Value("${auth.validation.batch.max-size:100}")
+    private int batchMaxSize;
+    
+    @Value("${auth.validation.batch.parallel-threshold:8}")
+    private int batchParallelThreshold;
+    
+    // 0 means one thread per available processor
+    @Value("${auth.validation.batch.parallelism:0}")
+    private int batchParallelism;
+    
+    @Value("${auth.validation.batch.queue-size:64}")
+    private int batchQueueSize;
+    
+    private ThreadPoolExecutor batchExecutor;
+    
+    public TokenValidationService(JwtUtil jwtUtil, VerifiedTokenCache tokenCache, RevokedTokenStore revokedTokens,
+                                  AuthMetrics authMetrics, AuditPublisher auditPublisher,
+                                  UserStatusCache userStatusCache) {
+        this.jwtUtil = jwtUtil;
+        this.tokenCache = tokenCache;
+        this.revokedTokens = revokedTokens;
+        this.authMetrics = authMetrics;
+        this.auditPublisher = auditPublisher;
+        this.userStatusCache = userStatusCache;
+    }
+    
+    /**
+     * Workers for large batches, kept apart from the common fork-join pool so a batch neither
+     * competes with its other users nor loses the request's MDC. When the queue is full the
+     * caller validates the chunk itself, so load is bounded without rejecting requests.
+     */
+    @PostConstruct
+    void init() {
+        if (batchParallelism <= 0) {
+            batchParallelism = Runtime.getRuntime().availableProcessors();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        batchExecutor = new ThreadPoolExecutor(batchParallelism, batchParallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchQueueSize),
+                task -> {
+                    Thread thread = new Thread(task, "token-batch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+    
+    /**
+     * Verify token once and return its claims or the reason it was rejected
+     */
+    public TokenIntrospection introspect(String token) {
+        if (token != null) {
+            VerifiedToken cached = tokenCache.get(token);
+            if (cached != null) {
+                // Revocation can happen after the token was cached
+                if (revokedTokens.isRevoked(cached.getTokenId())) {
+                    return TokenIntrospection.failure(Status.REVOKED);
+                }
+                return TokenIntrospection.valid(cached);
+            }
+        }
+        
+        TokenIntrospection introspection = jwtUtil.introspect(token);
+        if (introspection.isValid()) {
+            tokenCache.put(token, introspection.getToken());
+        }
+        return introspection;
+    }
+    
+    /**
+     * Validate token and return the identity it carries
+     */
+    public TokenValidationResponse validate(String token) {
+        TokenIntrospection introspection = check(token);
+        if (!introspection.isValid()) {
+            return new TokenValidationResponse(false, introspection.getMessage());
+        }
+        VerifiedToken verified = introspection.getToken();
+        return new TokenValidationResponse(
+            true, verified.getUsername(), verified.getRole(), verified.getUserId()
+        );
+    }
+    
+    /**
+     * Validate the token of an Authorization header, timed and audited like validate
+     * A missing or non-bearer header is rejected as MISSING.
+     */
+    public TokenIntrospection validateBearer(String authorization) {
+        return check(bearerToken(authorization));
+    }
+    
+    /**
+     * Validate token, timed and audited like validate, keeping the status and expiry for the gRPC API
+     */
+    public TokenIntrospection validateToken(String token) {
+        return check(token);
+    }
+    
+    /**
+     * Token of a "Bearer <token>" Authorization header value, or null if there is none
+     */
+    public static String bearerToken(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        return authorization.substring(BEARER_PREFIX.length()).trim();
+    }
+    
+    private TokenIntrospection check(String token) {
+        long start = System.nanoTime();
+        TokenIntrospection introspection = withUserStatus(introspect(token));
+        authMetrics.recordValidation(start, introspection.getStatus());
+        VerifiedToken verified = introspection.getToken();
+        auditPublisher.record(new AuditEvent(AuditEvent.Type.VALIDATE,
+            introspection.getStatus().name().toLowerCase(Locale.ROOT),
+            verified != null ? verified.getUsername() : null,
+            verified != null ? verified.getUserId() : null,
+            null
+        ));
+        if (!introspection.isValid()) {
+            rejectedTokenLog.info("Token rejected: {}", introspection.getMessage());
+        }
+        return introspection;
+    }
+    
+    /**
+     * Reject a verified token if its user has been blocked since it was issued
+     * Kept out of introspect, so that revoking and logging out still work for a blocked user's tokens.
+     */
+    private TokenIntrospection withUserStatus(TokenIntrospection introspection) {
+        if (introspection.isValid() && userStatusCache.isBlocked(introspection.getToken().getUserId())) {
+            return TokenIntrospection.failure(Status.USER_BLOCKED);
+        }
+        return introspection;
+    }
+    
+    /**
+     * Validate several tokens, returning the results in the same order.
+     * Larger batches are split into one chunk per batch worker; the calling thread validates the
+     * first chunk itself while the workers take the rest, each with the caller's MDC.
+     * Small ones stay on the calling thread where the hand-off would dominate.
+     */
+    public List<TokenValidationResponse> validateAll(List<String> tokens) {
+        if (tokens.size() > batchMaxSize) {
+            throw new InvalidRequestException(
+                "Batch contains " + tokens.size() + " tokens, the maximum is " + batchMaxSize
+            );
+        }
+        if (tokens.size() < batchParallelThreshold || batchParallelism < 2) {
+            return tokens.stream().map(this::validate).toList();
+        }
+        
+        TokenValidationResponse[] results = new TokenValidationResponse[tokens.size()];
+        int chunkSize = (tokens.size() + batchParallelism - 1) / batchParallelism;
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        List<Future<?>> chunks = new ArrayList<>(batchParallelism);
+        for (int from = chunkSize; from < tokens.size(); from += chunkSize) {
+            int start = from;
+            int end = Math.min(from + chunkSize, tokens.size());
+            chunks.add(batchExecutor.submit(withMdc(mdc, () -> validateRange(tokens, results, start, end))));
+        }
+        validateRange(tokens, results, 0, chunkSize);
+        for (Future<?> chunk : chunks) {
+            await(chunk);
+        }
+        return List.of(results);
+    }
+    
+    private void validateRange(List<String> tokens, TokenValidationResponse[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = validate(tokens.get(i));
+        }
+    }
+    
+    /**
+     * Run task with the given MDC, restoring the thread's own afterwards; a chunk can also run on
+     * the calling thread when the queue is full
+     */
+    private static Runnable withMdc(Map<String, String> mdc, Runnable task) {
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    MDC.setContextMap(previous);
+                } else {
+                    MDC.clear();
+                }
+            }
+        };
+    }
+    
+    private static void await(Future<?> chunk) {
+        try {
+            chunk.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Batch validation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating a batch", e);
+        }
+    }
+}
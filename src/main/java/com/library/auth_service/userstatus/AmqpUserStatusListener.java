@@ -0,0 +1,66 @@
+package com.library.auth_service.userstatus;
+
+import com.library.auth_service.client.UserServiceCodec;
+import com.library.auth_service.dto.UserResponse;
+import com.library.auth_service.logging.SampledLogger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Applies user-changed events from RabbitMQ to the user status cache
+ *
+ * Every instance binds its own anonymous, auto-deleted queue to the user exchange, so each one sees
+ * every event. The message body is the user as user-service returns it; a routing key ending in
+ * .deleted marks the user as deleted. Unreadable messages are logged and dropped.
+ */
+@Component
+@ConditionalOnClass(name = "org.springframework.amqp.rabbit.annotation.RabbitListener")
+@ConditionalOnProperty(name = "auth.user-status.source", havingValue = "amqp", matchIfMissing = true)
+public class AmqpUserStatusListener {
+    
+    private static final SampledLogger badEventLog = new SampledLogger(
+            LoggerFactory.getLogger(AmqpUserStatusListener.class), "unreadable user event messages", 10, Duration.ofMinutes(1));
+    
+    private final UserStatusCache userStatusCache;
+    private final UserServiceCodec codec;
+    
+    public AmqpUserStatusListener(UserStatusCache userStatusCache, UserServiceCodec codec) {
+        this.userStatusCache = userStatusCache;
+        this.codec = codec;
+    }
+    
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue,
+            exchange = @Exchange(name = "${auth.user-status.amqp.exchange:library.users}", type = ExchangeTypes.TOPIC),
+            key = "${auth.user-status.amqp.routing-key:user.#}"))
+    public void onUserChanged(Message message) {
+        UserResponse user;
+        try {
+            user = codec.readUser(message.getBody());
+        } catch (IOException e) {
+            badEventLog.warn("Dropping unreadable user event: {}", e.getMessage());
+            return;
+        }
+        if (user == null || user.getId() == null) {
+            badEventLog.warn("Dropping user event without a user id");
+            return;
+        }
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+        if (routingKey != null && routingKey.endsWith(".deleted")) {
+            userStatusCache.delete(user.getId());
+        } else {
+            userStatusCache.update(user);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.auth_service.userstatus;
+
+import com.library.auth_service.dto.UserResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers user-changed events in process instead of over the broker
+ * Stands in for RabbitMQ in tests and local runs (auth.user-status.source=memory).
+ */
+@Component
+@ConditionalOnProperty(name = "auth.user-status.source", havingValue = "memory")
+public class InMemoryUserStatusSource {
+    
+    private final UserStatusCache userStatusCache;
+    
+    public InMemoryUserStatusSource(UserStatusCache userStatusCache) {
+        this.userStatusCache = userStatusCache;
+    }
+    
+    public void userChanged(UserResponse user) {
+        userStatusCache.update(user);
+    }
+    
+    public void userDeleted(Long userId) {
+        userStatusCache.delete(userId);
+    }
+}
@@ -0,0 +1,48 @@
+package com.library.auth_service.userstatus;
+
+import com.library.auth_service.dto.UserResponse;
+
+/**
+ * Account flags of a user as last reported by user-service
+ */
+public final class UserStatus {
+    
+    private final Long userId;
+    private final boolean restricted;
+    private final boolean pendingApproval;
+    private final boolean rejected;
+    private final boolean deleted;
+    
+    private UserStatus(Long userId, boolean restricted, boolean pendingApproval, boolean rejected, boolean deleted) {
+        this.userId = userId;
+        this.restricted = restricted;
+        this.pendingApproval = pendingApproval;
+        this.rejected = rejected;
+        this.deleted = deleted;
+    }
+    
+    public static UserStatus of(UserResponse user) {
+        return new UserStatus(user.getId(), user.isRestricted(), user.isPendingApproval(), user.isRejected(), false);
+    }
+    
+    public static UserStatus deleted(Long userId) {
+        return new UserStatus(userId, false, false, false, true);
+    }
+    
+    public Long getUserId() { return userId; }
+    
+    public boolean isRestricted() { return restricted; }
+    
+    public boolean isPendingApproval() { return pendingApproval; }
+    
+    public boolean isRejected() { return rejected; }
+    
+    public boolean isDeleted() { return deleted; }
+    
+    /**
+     * Whether tokens of this user must no longer be accepted
+     */
+    public boolean isBlocked() {
+        return restricted || pendingApproval || rejected || deleted;
+    }
+}
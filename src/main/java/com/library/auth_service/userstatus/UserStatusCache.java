@@ -0,0 +1,184 @@
+package com.library.auth_service.userstatus;
+
+import com.library.auth_service.dto.UserResponse;
+import com.library.auth_service.logging.SampledLogger;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local view of the users whose tokens must be rejected (restricted, pending approval, rejected or deleted), keyed by user id.
+ *
+ * Kept current by user-changed events and by every login checked with user-service, and filled at
+ * startup by UserStatusWarmUp. Only blocked users are held: a user who is not in the cache is
+ * allowed, so a cold cache or a lost block event never rejects anyone by mistake. A lost unblock
+ * event does: the user's existing tokens stay rejected until the next login, which user-service
+ * checks and which updates the cache, or until the entry expires.
+ *
+ * Blocked users get no new tokens, so an entry is only needed while tokens issued before the block
+ * can still be used. Entries expire after retention, the refresh token session lifetime by default,
+ * and are swept periodically, so deleted users do not pile up. The number of blocked users held is
+ * bounded; past max-size further ones are counted and not cached.
+ */
+@Component
+public class UserStatusCache implements MeterBinder {
+    
+    private static final SampledLogger overflowLog = new SampledLogger(
+            LoggerFactory.getLogger(UserStatusCache.class), "user status overflow messages", 1, Duration.ofMinutes(1));
+    
+    private final ConcurrentHashMap<Long, Entry> blocked = new ConcurrentHashMap<>();
+    // Users changed while the warm-up runs; its older snapshot must not overwrite them
+    private final Set<Long> changedDuringWarmUp = ConcurrentHashMap.newKeySet();
+    private volatile boolean warmingUp;
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final AtomicLong nextSweep = new AtomicLong();
+    
+    @Value("${auth.user-status.max-size:100000}")
+    private int maxSize;
+    
+    @Value("${auth.user-status.retention:${jwt.refresh.max-session-lifetime:30d}}")
+    private Duration retention;
+    
+    @Value("${auth.user-status.sweep-interval:10m}")
+    private Duration sweepInterval;
+    
+    /**
+     * Whether tokens of the user must be rejected; false for unknown users and tokens without a user id
+     */
+    public boolean isBlocked(Long userId) {
+        return get(userId) != null;
+    }
+    
+    /**
+     * Status of a blocked user, or null if the user is not blocked as far as this cache knows
+     */
+    public UserStatus get(Long userId) {
+        Entry entry = userId == null ? null : blocked.get(userId);
+        return entry == null || entry.isExpired(System.currentTimeMillis()) ? null : entry.status;
+    }
+    
+    /**
+     * Record the current flags of a user, as returned by user-service or carried by an event
+     */
+    public void update(UserResponse user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        apply(UserStatus.of(user), false);
+    }
+    
+    public void delete(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        apply(UserStatus.deleted(userId), false);
+    }
+    
+    public int size() { return blocked.size(); }
+    
+    void beginWarmUp() {
+        changedDuringWarmUp.clear();
+        warmingUp = true;
+    }
+    
+    /**
+     * Add a user from the warm-up snapshot unless an event or a login has reported it since the warm-up began
+     */
+    void warmUp(UserResponse user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        apply(UserStatus.of(user), true);
+    }
+    
+    void endWarmUp() {
+        warmingUp = false;
+        changedDuringWarmUp.clear();
+    }
+    
+    private void apply(UserStatus status, boolean fromWarmUp) {
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+        // Deciding inside compute orders an event and a warm-up entry for the same user
+        blocked.compute(status.getUserId(), (userId, current) -> {
+            if (fromWarmUp) {
+                if (changedDuringWarmUp.contains(userId)) {
+                    return current;
+                }
+            } else if (warmingUp) {
+                changedDuringWarmUp.add(userId);
+            }
+            updates.increment();
+            if (!status.isBlocked()) {
+                return null;
+            }
+            if (current == null && blocked.size() >= maxSize) {
+                overflows.increment();
+                overflowLog.warn("User status cache is full ({} users), user {} is not tracked", maxSize, userId);
+                return null;
+            }
+            return new Entry(status, now + retention.toMillis());
+        });
+    }
+    
+    /**
+     * Drop entries past their retention, whose users have no token left that could be accepted
+     */
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + sweepInterval.toMillis())) {
+            return;
+        }
+        blocked.values().removeIf(entry -> {
+            if (entry.isExpired(now)) {
+                expirations.increment();
+                return true;
+            }
+            return false;
+        });
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.user-status.updates", updates, LongAdder::sum)
+                .description("User status changes applied from events, logins and the warm-up")
+                .register(registry);
+        FunctionCounter.builder("auth.user-status.overflows", overflows, LongAdder::sum)
+                .description("Blocked users not tracked because the user status cache was full")
+                .register(registry);
+        FunctionCounter.builder("auth.user-status.expirations", expirations, LongAdder::sum)
+                .description("Blocked users dropped from the user status cache after their retention")
+                .register(registry);
+        Gauge.builder("auth.user-status.blocked", blocked, Map::size)
+                .description("Number of blocked users held in the user status cache")
+                .register(registry);
+    }
+    
+    private static final class Entry {
+        
+        private final UserStatus status;
+        private final long expiresAtMillis;
+        
+        Entry(UserStatus status, long expiresAtMillis) {
+            this.status = status;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+        
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
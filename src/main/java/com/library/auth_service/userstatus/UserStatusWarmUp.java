@@ -0,0 +1,138 @@
+package com.library.auth_service.userstatus;
+
+import com.library.auth_service.client.ReactiveUserServiceClient;
+import com.library.auth_service.client.UserServiceClient;
+import com.library.auth_service.dto.UserResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Loads the currently blocked users into the user status cache once at startup
+ *
+ * Runs on a background thread after the server has started, so it never delays readiness; until
+ * it finishes, only events and logins fill the cache. The load is bounded: pages of page-size users
+ * up to max-users in total, and it gives up after timeout. Failures are logged and leave the cache
+ * as events and logins fill it.
+ */
+@Component
+public class UserStatusWarmUp implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserStatusWarmUp.class);
+    
+    private final UserStatusCache userStatusCache;
+    // Whichever client the active profile provides
+    private final UserServiceClient userServiceClient;
+    private final ReactiveUserServiceClient reactiveUserServiceClient;
+    private volatile Thread loader;
+    
+    @Value("${auth.user-status.warm-up.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${auth.user-status.warm-up.page-size:500}")
+    private int pageSize;
+    
+    @Value("${auth.user-status.warm-up.max-users:100000}")
+    private int maxUsers;
+    
+    @Value("${auth.user-status.warm-up.timeout:30s}")
+    private Duration timeout;
+    
+    public UserStatusWarmUp(UserStatusCache userStatusCache,
+                            ObjectProvider<UserServiceClient> userServiceClient,
+                            ObjectProvider<ReactiveUserServiceClient> reactiveUserServiceClient) {
+        this.userStatusCache = userStatusCache;
+        this.userServiceClient = userServiceClient.getIfAvailable();
+        this.reactiveUserServiceClient = reactiveUserServiceClient.getIfAvailable();
+    }
+    
+    @Override
+    public void start() {
+        if (!enabled || maxUsers <= 0) {
+            return;
+        }
+        loader = Thread.ofPlatform().name("user-status-warm-up").daemon().start(this::load);
+    }
+    
+    @Override
+    public void stop() {
+        Thread current = loader;
+        if (current != null) {
+            current.interrupt();
+            loader = null;
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return loader != null;
+    }
+    
+    private void load() {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        int loaded = 0;
+        userStatusCache.beginWarmUp();
+        try {
+            for (int page = 0; loaded < maxUsers; page++) {
+                if (System.nanoTime() > deadline) {
+                    logger.warn("User status warm-up timed out after {} with {} user(s) loaded", timeout, loaded);
+                    return;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                int size = Math.min(pageSize, maxUsers - loaded);
+                List<UserResponse> users = fetch(page, size, Duration.ofNanos(deadline - System.nanoTime()));
+                for (UserResponse user : users) {
+                    userStatusCache.warmUp(user);
+                }
+                loaded += users.size();
+                if (users.size() < size) {
+                    break;
+                }
+            }
+            if (loaded >= maxUsers) {
+                logger.warn("User status warm-up stopped at max-users ({}); later blocked users are only learned from events", maxUsers);
+            }
+            logger.info("User status warm-up read {} user(s) in {} ms, {} blocked user(s) cached",
+                    loaded, Duration.ofNanos(System.nanoTime() - start).toMillis(), userStatusCache.size());
+        } catch (RuntimeException e) {
+            if (isNotFound(e)) {
+                logger.info("User service has no bulk user status endpoint, skipping the warm-up");
+            } else {
+                logger.warn("User status warm-up failed after {} user(s): {}", loaded, e.getMessage());
+            }
+        } finally {
+            userStatusCache.endWarmUp();
+            loader = null;
+        }
+    }
+    
+    private List<UserResponse> fetch(int page, int size, Duration remaining) {
+        if (userServiceClient != null) {
+            return userServiceClient.blockedUsers(page, size);
+        }
+        List<UserResponse> users = reactiveUserServiceClient.blockedUsers(page, size).block(remaining);
+        return users != null ? users : List.of();
+    }
+    
+    private static boolean isNotFound(RuntimeException e) {
+        if (e instanceof RestClientResponseException response) {
+            return response.getStatusCode() == HttpStatus.NOT_FOUND;
+        }
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode() == HttpStatus.NOT_FOUND;
+        }
+        return false;
+    }
+}
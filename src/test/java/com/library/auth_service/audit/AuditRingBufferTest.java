@@ -0,0 +1,110 @@
+package com.library.auth_service.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRingBufferTest {
+    
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new AuditRingBuffer<Integer>(8).capacity()).isEqualTo(8);
+        assertThat(new AuditRingBuffer<Integer>(5).capacity()).isEqualTo(8);
+        assertThat(new AuditRingBuffer<Integer>(9).capacity()).isEqualTo(16);
+        assertThat(new AuditRingBuffer<Integer>(0).capacity()).isEqualTo(4);
+    }
+    
+    @Test
+    void fullBufferRejectsUntilTheConsumerFreesSlots() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(8);
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        
+        assertThat(buffer.offer(8)).isFalse();
+        assertThat(buffer.size()).isEqualTo(8);
+        
+        List<Integer> batch = new ArrayList<>();
+        assertThat(buffer.drainTo(batch, 3)).isEqualTo(3);
+        assertThat(batch).containsExactly(0, 1, 2);
+        for (int i = 8; i < 11; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(11)).isFalse();
+        
+        batch.clear();
+        assertThat(buffer.drainTo(batch, 100)).isEqualTo(8);
+        assertThat(batch).containsExactly(3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.drainTo(batch, 100)).isZero();
+    }
+    
+    @Test
+    void elementsKeepTheirOrderOverManyLaps() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        for (int lap = 0; lap < 50; lap++) {
+            while (buffer.offer(next)) {
+                next++;
+            }
+            buffer.drainTo(drained, 3);
+        }
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+        
+        assertThat(drained).containsExactlyElementsOf(IntStream.range(0, next).boxed().toList());
+    }
+    
+    @Test
+    void concurrentProducersLoseAndDuplicateNothing() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(64);
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers);
+        List<Integer> accepted = new ArrayList<>();
+        List<List<Integer>> acceptedByProducer = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            List<Integer> mine = new ArrayList<>();
+            acceptedByProducer.add(mine);
+            int base = p * perProducer;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(base + i)) {
+                        mine.add(base + i);
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+            producer.start();
+        }
+        
+        List<Integer> drained = new ArrayList<>();
+        while (done.getCount() > 0) {
+            buffer.drainTo(drained, 16);
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+        
+        acceptedByProducer.forEach(accepted::addAll);
+        assertThat(drained).hasSize(producers * perProducer - rejected.get());
+        Set<Integer> unique = new HashSet<>(drained);
+        assertThat(unique).hasSameSizeAs(drained).containsExactlyInAnyOrderElementsOf(accepted);
+        // Each producer's elements come out in the order it offered them
+        for (List<Integer> mine : acceptedByProducer) {
+            Set<Integer> own = new HashSet<>(mine);
+            assertThat(drained.stream().filter(own::contains).toList()).containsExactlyElementsOf(mine);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.library.auth_service.controller;
+
+import com.library.auth_service.dto.TokenValidationResponse;
+import com.library.auth_service.exception.InvalidRequestException;
+import com.library.auth_service.security.SecurityConfig;
+import com.library.auth_service.service.AuthService;
+import com.library.auth_service.service.TokenRefreshService;
+import com.library.auth_service.service.TokenRevocationService;
+import com.library.auth_service.service.TokenValidationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AuthController.class)
+@Import(SecurityConfig.class)
+class AuthControllerBatchTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockitoBean
+    private AuthService authService;
+    
+    @MockitoBean
+    private TokenValidationService tokenValidationService;
+    
+    @MockitoBean
+    private TokenRefreshService tokenRefreshService;
+    
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+    
+    @Test
+    void resultsComeBackInTheOrderOfTheTokens() throws Exception {
+        when(tokenValidationService.validateAll(List.of("a", "b"))).thenReturn(List.of(
+                new TokenValidationResponse(true, "alice", "STUDENT", 7L),
+                new TokenValidationResponse(false, "Token has expired")));
+        
+        mockMvc.perform(post("/api/auth/validate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"a\", \"b\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].valid").value(true))
+                .andExpect(jsonPath("$[0].username").value("alice"))
+                .andExpect(jsonPath("$[1].valid").value(false));
+    }
+    
+    @Test
+    void batchOverTheLimitIsABadRequest() throws Exception {
+        when(tokenValidationService.validateAll(List.of("a", "b")))
+                .thenThrow(new InvalidRequestException("Batch contains 2 tokens, the maximum is 1"));
+        
+        mockMvc.perform(post("/api/auth/validate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"a\", \"b\"]"))
+                .andExpect(status().isBadRequest());
+    }
+}
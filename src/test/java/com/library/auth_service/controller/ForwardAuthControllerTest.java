@@ -0,0 +1,94 @@
+package com.library.auth_service.controller;
+
+import com.library.auth_service.security.SecurityConfig;
+import com.library.auth_service.security.TokenIntrospection;
+import com.library.auth_service.security.TokenIntrospection.Status;
+import com.library.auth_service.security.VerifiedToken;
+import com.library.auth_service.service.TokenValidationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ForwardAuthController.class)
+@Import(SecurityConfig.class)
+class ForwardAuthControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ForwardAuthController controller;
+    
+    @MockitoBean
+    private TokenValidationService tokenValidationService;
+    
+    private void givenValid(String authorization, long expiresAtMillis) {
+        VerifiedToken token = new VerifiedToken("alice", "STUDENT", 7L, "token-id", expiresAtMillis, null);
+        when(tokenValidationService.validateBearer(authorization)).thenReturn(TokenIntrospection.valid(token));
+    }
+    
+    @Test
+    void validTokenIsAcceptedWithTheUserHeadersAndNotCached() throws Exception {
+        givenValid("Bearer good", System.currentTimeMillis() + 60_000);
+        
+        mockMvc.perform(get("/api/auth/forward-auth").header(HttpHeaders.AUTHORIZATION, "Bearer good"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(ForwardAuthController.USER_ID_HEADER, "7"))
+                .andExpect(header().string(ForwardAuthController.USER_NAME_HEADER, "alice"))
+                .andExpect(header().string(ForwardAuthController.USER_ROLE_HEADER, "STUDENT"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(content().string(""));
+    }
+    
+    @Test
+    void rejectedTokenIsUnauthorizedWithoutUserHeaders() throws Exception {
+        when(tokenValidationService.validateBearer("Bearer revoked")).thenReturn(TokenIntrospection.failure(Status.REVOKED));
+        
+        // Proxies keep the method of the original request
+        mockMvc.perform(post("/api/auth/forward-auth").header(HttpHeaders.AUTHORIZATION, "Bearer revoked"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(header().doesNotExist(ForwardAuthController.USER_ID_HEADER))
+                .andExpect(content().string(""));
+    }
+    
+    @Test
+    void missingAuthorizationIsUnauthorized() throws Exception {
+        when(tokenValidationService.validateBearer(null)).thenReturn(TokenIntrospection.failure(Status.MISSING));
+        
+        mockMvc.perform(get("/api/auth/forward-auth"))
+                .andExpect(status().isUnauthorized());
+    }
+    
+    @Test
+    void optInCachingNeverOutlivesTheToken() throws Exception {
+        ReflectionTestUtils.setField(controller, "cacheMaxAge", Duration.ofSeconds(30));
+        try {
+            givenValid("Bearer long", System.currentTimeMillis() + 600_000);
+            givenValid("Bearer short", System.currentTimeMillis() + 10_500);
+            
+            mockMvc.perform(get("/api/auth/forward-auth").header(HttpHeaders.AUTHORIZATION, "Bearer long"))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30, public"))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION));
+            mockMvc.perform(get("/api/auth/forward-auth").header(HttpHeaders.AUTHORIZATION, "Bearer short"))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=10, public"));
+        } finally {
+            ReflectionTestUtils.setField(controller, "cacheMaxAge", Duration.ZERO);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.library.auth_service.grpc;
+
+import com.library.auth_service.grpc.proto.TokenStatus;
+import com.library.auth_service.grpc.proto.TokenValidationGrpc;
+import com.library.auth_service.grpc.proto.ValidateRequest;
+import com.library.auth_service.grpc.proto.ValidateResponse;
+import com.library.auth_service.security.TokenIntrospection;
+import com.library.auth_service.security.TokenIntrospection.Status;
+import com.library.auth_service.security.VerifiedToken;
+import com.library.auth_service.service.TokenValidationService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenValidationGrpcServiceTest {
+    
+    private final TokenValidationService tokenValidationService = mock(TokenValidationService.class);
+    private final AtomicInteger validations = new AtomicInteger();
+    private Server server;
+    private ManagedChannel channel;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        // Tokens named "good-..." are valid for a user of the same name, "expired" is rejected
+        when(tokenValidationService.validateToken(any())).thenAnswer(invocation -> {
+            validations.incrementAndGet();
+            String token = invocation.getArgument(0);
+            if (token == null) {
+                return TokenIntrospection.failure(Status.MISSING);
+            }
+            if (!token.startsWith("good-")) {
+                return TokenIntrospection.failure(Status.EXPIRED);
+            }
+            return TokenIntrospection.valid(new VerifiedToken(token, "STUDENT", 7L, token + "-id", 4_000_000_000_000L, null));
+        });
+        String name = InProcessServerBuilder.generateName();
+        // Direct executors on both ends deliver every callback on the calling thread, so the steps are deterministic
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new TokenValidationGrpcService(tokenValidationService))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    private static ValidateRequest request(String token, long correlationId) {
+        ValidateRequest.Builder request = ValidateRequest.newBuilder().setCorrelationId(correlationId);
+        if (token != null) {
+            request.setToken(token);
+        }
+        return request.build();
+    }
+    
+    @Test
+    void unaryCallAnswersWithTheIdentityOrTheReason() {
+        TokenValidationGrpc.TokenValidationBlockingStub stub = TokenValidationGrpc.newBlockingStub(channel);
+        
+        ValidateResponse valid = stub.validate(request("good-alice", 0));
+        assertThat(valid.getValid()).isTrue();
+        assertThat(valid.getStatus()).isEqualTo(TokenStatus.TOKEN_STATUS_VALID);
+        assertThat(valid.getUsername()).isEqualTo("good-alice");
+        assertThat(valid.getRole()).isEqualTo("STUDENT");
+        assertThat(valid.getUserId()).isEqualTo(7L);
+        assertThat(valid.getExpiresAtMillis()).isEqualTo(4_000_000_000_000L);
+        
+        ValidateResponse expired = stub.validate(request("expired", 42));
+        assertThat(expired.getValid()).isFalse();
+        assertThat(expired.getStatus()).isEqualTo(TokenStatus.TOKEN_STATUS_EXPIRED);
+        assertThat(expired.getCorrelationId()).isEqualTo(42);
+        assertThat(expired.hasUserId()).isFalse();
+        
+        assertThat(stub.validate(request(null, 0)).getStatus()).isEqualTo(TokenStatus.TOKEN_STATUS_MISSING);
+    }
+    
+    @Test
+    void streamAnswersEveryRequestInOrderWithItsCorrelationId() throws Exception {
+        List<ValidateResponse> responses = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        StreamObserver<ValidateRequest> requests = TokenValidationGrpc.newStub(channel)
+                .validateStream(new StreamObserver<>() {
+                    @Override
+                    public void onNext(ValidateResponse response) {
+                        responses.add(response);
+                    }
+                    
+                    @Override
+                    public void onError(Throwable t) {
+                        completed.completeExceptionally(t);
+                    }
+                    
+                    @Override
+                    public void onCompleted() {
+                        completed.complete(null);
+                    }
+                });
+        
+        for (long id = 1; id <= 50; id++) {
+            requests.onNext(request(id % 3 == 0 ? "expired" : "good-" + id, id));
+        }
+        requests.onCompleted();
+        completed.get(5, TimeUnit.SECONDS);
+        
+        assertThat(responses).hasSize(50);
+        for (int i = 0; i < 50; i++) {
+            long id = i + 1;
+            ValidateResponse response = responses.get(i);
+            assertThat(response.getCorrelationId()).isEqualTo(id);
+            assertThat(response.getValid()).as("request " + id).isEqualTo(id % 3 != 0);
+            if (response.getValid()) {
+                assertThat(response.getUsername()).isEqualTo("good-" + id);
+            }
+        }
+    }
+    
+    @Test
+    void slowReaderIsOnlySentWhatItAsksFor() throws Exception {
+        List<ValidateResponse> responses = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        CompletableFuture<ClientCallStreamObserver<ValidateRequest>> call = new CompletableFuture<>();
+        StreamObserver<ValidateRequest> requests = TokenValidationGrpc.newStub(channel)
+                .validateStream(new ClientResponseObserver<ValidateRequest, ValidateResponse>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<ValidateRequest> requestStream) {
+                        // The client reads nothing until it asks for answers
+                        requestStream.disableAutoRequestWithInitial(0);
+                        call.complete(requestStream);
+                    }
+                    
+                    @Override
+                    public void onNext(ValidateResponse response) {
+                        responses.add(response);
+                    }
+                    
+                    @Override
+                    public void onError(Throwable t) {
+                        completed.completeExceptionally(t);
+                    }
+                    
+                    @Override
+                    public void onCompleted() {
+                        completed.complete(null);
+                    }
+                });
+        for (long id = 1; id <= 5; id++) {
+            requests.onNext(request("good-" + id, id));
+        }
+        requests.onCompleted();
+        
+        // Nothing is validated ahead of the reader
+        assertThat(validations.get()).isZero();
+        
+        call.get().request(2);
+        assertThat(responses).extracting(ValidateResponse::getCorrelationId).containsExactly(1L, 2L);
+        assertThat(validations.get()).isEqualTo(2);
+        
+        // Once the reader catches up, the stream resumes where it stopped rather than stalling
+        call.get().request(Integer.MAX_VALUE);
+        completed.get(5, TimeUnit.SECONDS);
+        assertThat(responses).extracting(ValidateResponse::getCorrelationId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(validations.get()).isEqualTo(5);
+    }
+}
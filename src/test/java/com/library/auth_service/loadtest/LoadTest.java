@@ -0,0 +1,298 @@
+package com.library.auth_service.loadtest;
+
+import com.library.auth_service.AuthServiceApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop load test of login, register and validate against an embedded user-service stub.
+ *
+ * Requests are started at a fixed total rate no matter how fast responses come back, and each
+ * latency is measured from the moment the request was scheduled rather than actually sent. A
+ * service that falls behind therefore shows its queueing delay in the percentiles instead of
+ * silently slowing the load down (coordinated omission). Latencies of successful requests are
+ * recorded in an HdrHistogram per operation.
+ *
+ *   mvn -Pload-test test-compile exec:java -Dloadtest.main=com.library.auth_service.loadtest.LoadTest \
+ *       -Drate=1000 -Dmix=login:20,register:5,validate:75 -Dlatency=20 -Derror-rate=0.01 -Dduration=30
+ *
+ * Other options: warmup (seconds), users (distinct login usernames), tokens (validated token pool),
+ * threads (platform or virtual request handling), profile (e.g. reactive) and app.args, extra
+ * space-separated --name=value application arguments to compare client pools, caches and the like.
+ */
+public class LoadTest {
+    
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+    
+    enum Operation {
+        LOGIN(200), REGISTER(201), VALIDATE(200);
+        
+        private final int expectedStatus;
+        
+        Operation(int expectedStatus) {
+            this.expectedStatus = expectedStatus;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("rate", 1000);
+        int durationSeconds = Integer.getInteger("duration", 30);
+        int warmupSeconds = Integer.getInteger("warmup", 10);
+        Map<Operation, Integer> mix = parseMix(System.getProperty("mix", "login:20,register:5,validate:75"));
+        long latencyMillis = Long.getLong("latency", 20);
+        double errorRate = Double.parseDouble(System.getProperty("error-rate", "0"));
+        int users = Integer.getInteger("users", 10000);
+        int tokenCount = Integer.getInteger("tokens", 1000);
+        String threads = System.getProperty("threads", "platform");
+        String profile = System.getProperty("profile", "");
+        String appArgs = System.getProperty("app.args", "");
+        
+        try (UserServiceStub stub = new UserServiceStub(latencyMillis, errorRate)) {
+            List<String> arguments = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                    "--user-service.url=" + stub.getUrl(),
+                    // Load test users log in far more often than real ones
+                    "--auth.login.rate-limit.enabled=false",
+                    // No broker around; the audit pipeline still runs, into memory
+                    "--auth.audit.sink=memory",
+                    "--logging.level.com.library=WARN"));
+            if (!profile.isBlank()) {
+                arguments.add("--spring.profiles.active=" + profile);
+            }
+            if (!appArgs.isBlank()) {
+                arguments.addAll(List.of(appArgs.trim().split("\\s+")));
+            }
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(AuthServiceApplication.class)
+                    .run(arguments.toArray(String[]::new));
+            try {
+                int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+                Target target = new Target(port, users);
+                target.loginTokens(tokenCount);
+                
+                run(target, mix, rate, warmupSeconds);
+                stub.resetPeak();
+                Results results = run(target, mix, rate, durationSeconds);
+                
+                System.out.printf("%nrate=%d/s duration=%ds threads=%s profile=%s user-service latency=%dms error-rate=%.3f%s%n",
+                        rate, durationSeconds, threads, profile.isEmpty() ? "default" : profile,
+                        latencyMillis, errorRate, appArgs.isBlank() ? "" : " app.args=" + appArgs.trim());
+                results.print(stub.getPeakInFlight());
+            } finally {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+    
+    /**
+     * Start operations at rate per second for the given time, then wait for the outstanding ones
+     */
+    private static Results run(Target target, Map<Operation, Integer> mix, int rate, int seconds) {
+        Operation[] operations = mix.keySet().toArray(Operation[]::new);
+        int[] cumulativeWeights = new int[operations.length];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.length; i++) {
+            totalWeight += mix.get(operations[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+        
+        Results results = new Results();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long count = (long) rate * seconds;
+        long start = System.nanoTime();
+        for (long i = 0; i < count; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            
+            int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+            int index = 0;
+            while (pick >= cumulativeWeights[index]) {
+                index++;
+            }
+            Operation operation = operations[index];
+            results.sent(operation);
+            pending.add(target.send(operation).whenComplete((status, e) ->
+                    results.completed(operation, scheduled, e == null && status == operation.expectedStatus)));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        results.elapsedNanos = System.nanoTime() - start;
+        return results;
+    }
+    
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix needs at least one operation with a positive weight: " + mix);
+        }
+        return weights;
+    }
+    
+    /**
+     * Builds and sends the requests of each operation against the running application
+     */
+    private static final class Target {
+        
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        private final String baseUrl;
+        private final int users;
+        private final AtomicLong registrations = new AtomicLong();
+        private final List<String> tokens = new ArrayList<>();
+        
+        Target(int port, int users) {
+            this.baseUrl = "http://127.0.0.1:" + port + "/api/auth";
+            this.users = users;
+        }
+        
+        /**
+         * Log in sequentially until count tokens are collected, for the validate operation to use
+         */
+        void loginTokens(int count) throws Exception {
+            for (int attempt = 0; tokens.size() < count && attempt < count * 10; attempt++) {
+                HttpResponse<String> response = client.send(login(attempt % users), HttpResponse.BodyHandlers.ofString());
+                Matcher matcher = TOKEN.matcher(response.body());
+                if (response.statusCode() == 200 && matcher.find()) {
+                    tokens.add(matcher.group(1));
+                }
+            }
+            if (tokens.isEmpty()) {
+                throw new IllegalStateException("No login succeeded, cannot validate tokens");
+            }
+        }
+        
+        CompletableFuture<Integer> send(Operation operation) {
+            HttpRequest request = switch (operation) {
+                case LOGIN -> login(ThreadLocalRandom.current().nextInt(users));
+                case REGISTER -> register(registrations.incrementAndGet());
+                case VALIDATE -> validate(tokens.get(ThreadLocalRandom.current().nextInt(tokens.size())));
+            };
+            return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+        }
+        
+        private HttpRequest login(int user) {
+            return post("/login", "{\"username\":\"user" + user + "\",\"password\":\"password\"}");
+        }
+        
+        private HttpRequest register(long n) {
+            return post("/register", "{\"username\":\"load" + n + "\",\"email\":\"load" + n
+                    + "@library.test\",\"password\":\"password\"}");
+        }
+        
+        private HttpRequest validate(String token) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/validate?token="
+                            + URLEncoder.encode(token, StandardCharsets.UTF_8)))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+        }
+        
+        private HttpRequest post(String path, String body) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+    
+    /**
+     * Counts and latency histograms (in microseconds) per operation
+     */
+    private static final class Results {
+        
+        private final Map<Operation, LongAdder> sent = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private long elapsedNanos;
+        
+        Results() {
+            for (Operation operation : Operation.values()) {
+                sent.put(operation, new LongAdder());
+                errors.put(operation, new LongAdder());
+                latencies.put(operation, new ConcurrentHistogram(3));
+            }
+        }
+        
+        void sent(Operation operation) {
+            sent.get(operation).increment();
+        }
+        
+        void completed(Operation operation, long scheduledNanos, boolean ok) {
+            if (ok) {
+                latencies.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos));
+            } else {
+                errors.get(operation).increment();
+            }
+        }
+        
+        void print(int peakUserServiceInFlight) {
+            System.out.printf("%-9s %9s %9s %9s %9s %9s %9s %9s%n",
+                    "operation", "sent", "errors", "ok/s", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+            Histogram all = new Histogram(3);
+            long allSent = 0;
+            long allErrors = 0;
+            for (Operation operation : Operation.values()) {
+                long operationSent = sent.get(operation).sum();
+                if (operationSent == 0) {
+                    continue;
+                }
+                Histogram histogram = latencies.get(operation);
+                all.add(histogram);
+                allSent += operationSent;
+                allErrors += errors.get(operation).sum();
+                printRow(operation.name().toLowerCase(Locale.ROOT), operationSent, errors.get(operation).sum(), histogram);
+            }
+            printRow("all", allSent, allErrors, all);
+            System.out.printf("peak concurrent user-service calls: %d%n", peakUserServiceInFlight);
+        }
+        
+        private void printRow(String name, long operationSent, long operationErrors, Histogram histogram) {
+            System.out.printf("%-9s %9d %9d %9.0f %9.2f %9.2f %9.2f %9.2f%n",
+                    name, operationSent, operationErrors,
+                    histogram.getTotalCount() / (elapsedNanos / 1e9),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
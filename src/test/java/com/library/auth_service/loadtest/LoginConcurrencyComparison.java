@@ -0,0 +1,154 @@
+package com.library.auth_service.loadtest;
+
+import com.library.auth_service.AuthServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares how many concurrent in-flight logins one instance sustains with platform-thread
+ * and virtual-thread request handling.
+ * 
+ * Each mode starts the application against a user-service stub with fixed latency and drives
+ * it with a fixed number of closed-loop clients. The peak number of concurrent requests seen by
+ * the stub is the number of logins the instance actually had in flight.
+ * 
+ *   mvn -Pload-test test-compile exec:java -Dclients=1000 -Dlatency=500 -Dduration=20
+ */
+public class LoginConcurrencyComparison {
+    
+    // One user per client, so identical concurrent logins are not coalesced into one user-service call
+    private static final String LOGIN_BODY = "{\"username\":\"student%d\",\"password\":\"password\"}";
+    
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("clients", 1000);
+        long latencyMillis = Long.getLong("latency", 500);
+        int durationSeconds = Integer.getInteger("duration", 20);
+        
+        try (UserServiceStub stub = new UserServiceStub(latencyMillis)) {
+            List<String> report = new ArrayList<>();
+            for (boolean virtual : new boolean[] {false, true}) {
+                report.add(run(stub, virtual, clients, durationSeconds));
+            }
+            System.out.printf("%nclients=%d user-service latency=%dms duration=%ds%n", clients, latencyMillis, durationSeconds);
+            System.out.printf("%-9s %12s %10s %10s %10s %8s%n", "threads", "peak-inflight", "logins/s", "p50(ms)", "p99(ms)", "errors");
+            report.forEach(System.out::println);
+        }
+        System.exit(0);
+    }
+    
+    private static String run(UserServiceStub stub, boolean virtual, int clients, int durationSeconds) throws Exception {
+        // Passed as command line arguments so they override application.yaml
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AuthServiceApplication.class)
+                .run(
+                    "--server.port=0",
+                    "--spring.threads.virtual.enabled=" + virtual,
+                    "--user-service.url=" + stub.getUrl(),
+                    // Take the connection pool out of the picture, only the threading model differs
+                    "--user-service.client.max-connections=" + (clients * 2),
+                    "--user-service.client.max-connections-per-route=" + (clients * 2),
+                    "--user-service.client.pool-acquire-timeout=30s",
+                    "--user-service.client.read-timeout=30s",
+                    "--user-service.client.connect-timeout=30s",
+                    "--server.tomcat.max-connections=" + (clients * 2),
+                    // Every client logs in far more often than a real user would
+                    "--auth.login.rate-limit.enabled=false",
+                    // No broker around; the audit pipeline still runs, into memory
+                    "--auth.audit.sink=memory",
+                    "--logging.level.com.library=WARN");
+        try {
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            URI login = URI.create("http://127.0.0.1:" + port + "/api/auth/login");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            
+            // Warm up connections and JIT before measuring
+            drive(client, login, clients, 5);
+            stub.resetPeak();
+            Result result = drive(client, login, clients, durationSeconds);
+            
+            return String.format("%-9s %12d %10.0f %10d %10d %8d",
+                    virtual ? "virtual" : "platform",
+                    stub.getPeakInFlight(),
+                    result.completed / (double) durationSeconds,
+                    result.percentile(50),
+                    result.percentile(99),
+                    result.errors);
+        } finally {
+            context.close();
+        }
+    }
+    
+    private static Result drive(HttpClient client, URI login, int clients, int durationSeconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        Result result = new Result();
+        AtomicLong errors = new AtomicLong();
+        
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                HttpRequest request = HttpRequest.newBuilder(login)
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofSeconds(60))
+                        .POST(HttpRequest.BodyPublishers.ofString(String.format(LOGIN_BODY, i)))
+                        .build();
+                workers.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                latencies.add(System.nanoTime() - start);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    result.add(latencies);
+                });
+            }
+        }
+        result.errors = errors.get();
+        return result;
+    }
+    
+    private static final class Result {
+        
+        private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private long completed;
+        private long errors;
+        
+        void add(List<Long> clientLatencies) {
+            latencies.addAll(clientLatencies);
+            synchronized (this) {
+                completed += clientLatencies.size();
+            }
+        }
+        
+        long percentile(int percentile) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            Collections.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(index, 0)));
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.library.auth_service.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares startup time and first-request latency of the service started as a plain jar, with
+ * Spring AOT, with AOT plus the class data sharing archive, and as a native executable.
+ *
+ * Every run launches a fresh process against a user-service stub and measures from the launch:
+ * the time until /api/auth/health first answers, then the first login and the first validate,
+ * which still pay for lazy initialization and cold code. Rounds go through all modes in turn so
+ * that drift on the machine hits each of them alike, and a first round that only warms the page
+ * cache is discarded. Process output is kept in target/startup.
+ *
+ *   mvn -Pfast-startup package -DskipTests   (and optionally mvn -Pnative native:compile)
+ *   mvn -Pload-test test-compile exec:java -Dloadtest.main=com.library.auth_service.loadtest.StartupComparison -Druns=5
+ *
+ * Modes whose artifacts are missing are skipped; -Dmodes=jar,aot,aot-cds,native picks a subset.
+ */
+public class StartupComparison {
+    
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+    private static final Pattern RSS = Pattern.compile("VmRSS:\\s+(\\d+) kB");
+    
+    enum Mode {
+        JAR, AOT, AOT_CDS, NATIVE;
+        
+        String label() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("runs", 5);
+        Path target = Path.of(System.getProperty("target", "target"));
+        String artifact = System.getProperty("artifact", "auth-service-0.0.1-SNAPSHOT");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        
+        Map<Mode, List<String>> commands = new EnumMap<>(Mode.class);
+        Path jar = target.resolve(artifact + ".jar");
+        Path cds = target.resolve("cds");
+        Path executable = target.resolve("auth-service");
+        commands.put(Mode.JAR, List.of(java, "-jar", jar.toString()));
+        commands.put(Mode.AOT, List.of(java, "-Dspring.aot.enabled=true", "-jar", jar.toString()));
+        // The archive is only used with the class path it was recorded with, i.e. the extracted jar
+        commands.put(Mode.AOT_CDS, List.of(java, "-XX:SharedArchiveFile=" + cds.resolve("application.jsa"),
+                "-Dspring.aot.enabled=true", "-jar", cds.resolve(artifact + ".jar").toString()));
+        commands.put(Mode.NATIVE, List.of(executable.toString()));
+        
+        List<String> selected = Arrays.asList(System.getProperty("modes", "jar,aot,aot-cds,native").split(","));
+        commands.keySet().removeIf(mode -> !selected.contains(mode.label()));
+        if (!Files.exists(jar)) {
+            commands.keySet().removeAll(List.of(Mode.JAR, Mode.AOT));
+        }
+        if (!Files.exists(cds.resolve("application.jsa"))) {
+            commands.remove(Mode.AOT_CDS);
+        }
+        if (!Files.isExecutable(executable)) {
+            commands.remove(Mode.NATIVE);
+        }
+        if (commands.isEmpty()) {
+            throw new IllegalStateException("Nothing to start in " + target.toAbsolutePath()
+                    + ", build with mvn -Pfast-startup package first");
+        }
+        
+        Path logs = Files.createDirectories(target.resolve("startup"));
+        Map<Mode, List<Sample>> samples = new EnumMap<>(Mode.class);
+        try (UserServiceStub stub = new UserServiceStub(0)) {
+            Probe probe = new Probe(stub);
+            for (int round = 0; round <= runs; round++) {
+                for (Map.Entry<Mode, List<String>> mode : commands.entrySet()) {
+                    Sample sample = probe.run(mode.getValue(),
+                            logs.resolve(mode.getKey().label() + "-" + round + ".log"));
+                    System.out.printf("%-8s round %d: %s%n", mode.getKey().label(), round, sample);
+                    if (round > 0) {
+                        samples.computeIfAbsent(mode.getKey(), m -> new ArrayList<>()).add(sample);
+                    }
+                }
+            }
+        }
+        
+        System.out.printf("%nruns=%d (medians; ready-min is the fastest run)%n", runs);
+        System.out.printf("%-8s %12s %12s %15s %18s %10s%n",
+                "mode", "ready(ms)", "ready-min", "first-login(ms)", "first-validate(ms)", "rss(MB)");
+        for (Map.Entry<Mode, List<Sample>> mode : samples.entrySet()) {
+            List<Sample> results = mode.getValue();
+            System.out.printf("%-8s %12.0f %12.0f %15.1f %18.1f %10.0f%n",
+                    mode.getKey().label(),
+                    median(results, Sample::readyNanos) / 1e6,
+                    results.stream().mapToLong(Sample::readyNanos).min().orElse(0) / 1e6,
+                    median(results, Sample::loginNanos) / 1e6,
+                    median(results, Sample::validateNanos) / 1e6,
+                    median(results, Sample::rssKilobytes) / 1024.0);
+        }
+        System.exit(0);
+    }
+    
+    private static double median(List<Sample> samples, ToLongFunction<Sample> value) {
+        long[] values = samples.stream().mapToLong(value).sorted().toArray();
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2.0;
+    }
+    
+    /**
+     * Launches the service, waits for it to answer and times its first requests
+     */
+    private static final class Probe {
+        
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        private final UserServiceStub stub;
+        
+        Probe(UserServiceStub stub) throws Exception {
+            this.stub = stub;
+            // The harness' own HTTP client must not be cold in the first measured run
+            client.send(HttpRequest.newBuilder(URI.create(stub.getUrl() + "/api/users/internal/validate"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+        
+        Sample run(List<String> command, Path log) throws Exception {
+            int port = freePort();
+            List<String> arguments = new ArrayList<>(command);
+            arguments.addAll(List.of(
+                    "--server.port=" + port,
+                    "--user-service.url=" + stub.getUrl(),
+                    "--auth.logging.format=text"));
+            String baseUrl = "http://127.0.0.1:" + port;
+            
+            long launched = System.nanoTime();
+            Process process = new ProcessBuilder(arguments)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+            try {
+                waitUntilHealthy(process, baseUrl, log);
+                long ready = System.nanoTime() - launched;
+                
+                long loginStart = System.nanoTime();
+                HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"student\",\"password\":\"password\"}"))
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                long loginNanos = System.nanoTime() - loginStart;
+                Matcher token = TOKEN.matcher(login.body());
+                if (login.statusCode() != 200 || !token.find()) {
+                    throw new IllegalStateException("First login failed with " + login.statusCode() + ", see " + log);
+                }
+                
+                long validateStart = System.nanoTime();
+                HttpResponse<Void> validate = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/validate?token="
+                                + URLEncoder.encode(token.group(1), StandardCharsets.UTF_8))).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                long validateNanos = System.nanoTime() - validateStart;
+                if (validate.statusCode() != 200) {
+                    throw new IllegalStateException("First validate failed with " + validate.statusCode() + ", see " + log);
+                }
+                return new Sample(ready, loginNanos, validateNanos, residentKilobytes(process));
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+        
+        private void waitUntilHealthy(Process process, String baseUrl, Path log) throws Exception {
+            // Not /actuator/health, which stays DOWN without a RabbitMQ broker
+            HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/health"))
+                    .timeout(Duration.ofSeconds(1))
+                    .build();
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Exited with " + process.exitValue() + " before it was healthy, see " + log);
+                }
+                try {
+                    if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return;
+                    }
+                } catch (ConnectException | HttpTimeoutException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("Not healthy within 2 minutes, see " + log);
+        }
+        
+        private static int freePort() throws IOException {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                return socket.getLocalPort();
+            }
+        }
+        
+        /**
+         * Resident set size from /proc, or 0 where there is none
+         */
+        private static long residentKilobytes(Process process) {
+            try {
+                Matcher matcher = RSS.matcher(Files.readString(Path.of("/proc", String.valueOf(process.pid()), "status")));
+                return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+    }
+    
+    private static final class Sample {
+        
+        private final long readyNanos;
+        private final long loginNanos;
+        private final long validateNanos;
+        private final long rssKilobytes;
+        
+        Sample(long readyNanos, long loginNanos, long validateNanos, long rssKilobytes) {
+            this.readyNanos = readyNanos;
+            this.loginNanos = loginNanos;
+            this.validateNanos = validateNanos;
+            this.rssKilobytes = rssKilobytes;
+        }
+        
+        long readyNanos() { return readyNanos; }
+        
+        long loginNanos() { return loginNanos; }
+        
+        long validateNanos() { return validateNanos; }
+        
+        long rssKilobytes() { return rssKilobytes; }
+        
+        @Override
+        public String toString() {
+            return String.format("ready %.0fms, first login %.1fms, first validate %.1fms, rss %dMB",
+                    readyNanos / 1e6, loginNanos / 1e6, validateNanos / 1e6, rssKilobytes / 1024);
+        }
+    }
+}
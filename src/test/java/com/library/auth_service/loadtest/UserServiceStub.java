@@ -0,0 +1,95 @@
+package com.library.auth_service.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded stand-in for the internal user-service endpoints with a fixed response latency.
+ * A configurable fraction of requests fails with a 500 after the same latency.
+ * Requests are served on virtual threads so the stub itself never limits concurrency,
+ * and the peak number of concurrent requests is recorded.
+ */
+public class UserServiceStub implements AutoCloseable {
+    
+    static {
+        // The JDK server closes keep-alive connections beyond 200 idle ones, which would break
+        // the client's pooled connections under high concurrency
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "100000");
+        // Headers and body go out in separate writes; with Nagle on, the body waits for the
+        // client's delayed ACK and every response picks up ~40ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+    
+    private static final byte[] ERROR = "{\"message\":\"Injected failure\"}".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] USER = ("{\"id\":1,\"username\":\"student\",\"email\":\"student@library.test\","
+            + "\"role\":\"STUDENT\",\"restricted\":false,\"pendingApproval\":false,\"rejected\":false,"
+            + "\"createdAt\":\"2024-09-01T08:00:00\",\"updatedAt\":\"2024-09-01T08:00:00\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final long latencyMillis;
+    private final double errorRate;
+    
+    public UserServiceStub(long latencyMillis) throws IOException {
+        this(latencyMillis, 0);
+    }
+    
+    public UserServiceStub(long latencyMillis, double errorRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.setExecutor(executor);
+        server.createContext("/api/users/internal/validate", exchange -> respond(exchange, 200));
+        server.createContext("/api/users/internal/create", exchange -> respond(exchange, 201));
+        server.start();
+    }
+    
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+    
+    public void resetPeak() {
+        peakInFlight.set(0);
+    }
+    
+    private void respond(HttpExchange exchange, int status) throws IOException {
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        try {
+            exchange.getRequestBody().readAllBytes();
+            Thread.sleep(latencyMillis);
+            boolean fail = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+            byte[] body = fail ? ERROR : USER;
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fail ? 500 : status, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,105 @@
+package com.library.auth_service.security;
+
+import com.library.auth_service.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CredentialCacheTest {
+    
+    private static CredentialCache cache(Duration ttl, int maxSize) {
+        CredentialCache cache = new CredentialCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttl", ttl);
+        ReflectionTestUtils.setField(cache, "maxSize", maxSize);
+        // Few iterations keep the tests fast; the verifier works the same way
+        ReflectionTestUtils.setField(cache, "iterations", 1000);
+        return cache;
+    }
+    
+    private static CredentialCache cache() {
+        return cache(Duration.ofMinutes(5), 100);
+    }
+    
+    private static UserResponse user(String username) {
+        UserResponse user = new UserResponse();
+        user.setId(7L);
+        user.setUsername(username);
+        user.setRole("STUDENT");
+        return user;
+    }
+    
+    @Test
+    void repeatLoginWithTheSamePasswordIsAHit() {
+        CredentialCache cache = cache();
+        UserResponse alice = user("alice");
+        cache.put("alice", "secret", alice);
+        
+        assertThat(cache.verify("alice", "secret")).isSameAs(alice);
+        assertThat(cache.verify("bob", "secret")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+    
+    @Test
+    void wrongPasswordDropsTheEntry() {
+        CredentialCache cache = cache();
+        cache.put("alice", "secret", user("alice"));
+        
+        assertThat(cache.verify("alice", "guess")).isNull();
+        
+        // The right password is now checked by user-service again
+        assertThat(cache.verify("alice", "secret")).isNull();
+        assertThat(cache.getMismatches()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+    
+    @Test
+    void hitNeedsTheExactUsernameButAnySpellingInvalidates() {
+        CredentialCache cache = cache();
+        cache.put("alice", "secret", user("alice"));
+        
+        assertThat(cache.verify("Alice", "secret")).isNull();
+        assertThat(cache.size()).isZero();
+        
+        cache.put("alice", "secret", user("alice"));
+        cache.invalidate("ALICE");
+        assertThat(cache.verify("alice", "secret")).isNull();
+    }
+    
+    @Test
+    void entryExpiresAfterTheTtl() throws InterruptedException {
+        CredentialCache cache = cache(Duration.ofMillis(100), 100);
+        cache.put("alice", "secret", user("alice"));
+        
+        Thread.sleep(150);
+        
+        assertThat(cache.verify("alice", "secret")).isNull();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+    
+    @Test
+    void fullCacheEvictsDownToTheLowWaterMark() {
+        CredentialCache cache = cache(Duration.ofMinutes(5), 10);
+        for (int i = 0; i <= 10; i++) {
+            cache.put("user-" + i, "secret", user("user-" + i));
+        }
+        
+        assertThat(cache.size()).isEqualTo(9);
+        assertThat(cache.getEvictions()).isEqualTo(2);
+    }
+    
+    @Test
+    void disabledCacheStoresNothing() {
+        CredentialCache cache = cache();
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        cache.put("alice", "secret", user("alice"));
+        
+        assertThat(cache.verify("alice", "secret")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+}
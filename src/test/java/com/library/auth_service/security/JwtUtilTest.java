@@ -0,0 +1,202 @@
+package com.library.auth_service.security;
+
+import com.library.auth_service.security.TokenIntrospection.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+    
+    // 32 bytes, so the ring derives an HS256 key from it
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final String KID = "primary";
+    
+    private SigningKeyRing keyRing;
+    private RevokedTokenStore revokedTokens;
+    private JwtUtil jwtUtil;
+    
+    @BeforeEach
+    void setUp() {
+        keyRing = new SigningKeyRing();
+        ReflectionTestUtils.setField(keyRing, "secret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "defaultKid", KID);
+        ReflectionTestUtils.setField(keyRing, "keysFile", "");
+        ReflectionTestUtils.setField(keyRing, "algorithm", "HMAC");
+        ReflectionTestUtils.setField(keyRing, "privateKeyFile", "");
+        ReflectionTestUtils.setField(keyRing, "publicKeyFile", "");
+        ReflectionTestUtils.setField(keyRing, "previousPublicKeyFiles", new String[0]);
+        keyRing.init();
+        
+        revokedTokens = new RevokedTokenStore();
+        ReflectionTestUtils.setField(revokedTokens, "expectedRevocations", 100);
+        ReflectionTestUtils.setField(revokedTokens, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(revokedTokens, "sweepInterval", Duration.ofMinutes(1));
+        revokedTokens.init();
+        
+        jwtUtil = new JwtUtil(keyRing, revokedTokens);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        keyRing.shutdown();
+    }
+    
+    private static long seconds(long offsetMillis) {
+        return (System.currentTimeMillis() + offsetMillis) / 1000;
+    }
+    
+    private static String payload(String extra) {
+        return "{\"jti\":\"id-1\",\"role\":\"STUDENT\",\"userId\":7,\"sub\":\"alice\",\"exp\":"
+                + seconds(60_000) + extra + "}";
+    }
+    
+    private static String header(String kid, String alg) {
+        return "{\"kid\":\"" + kid + "\",\"alg\":\"" + alg + "\"}";
+    }
+    
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Compact JWS over the given header and payload JSON, signed with HMAC under macAlgorithm
+     */
+    private static String sign(String header, String payload, String macAlgorithm, String secret) {
+        String signingInput = encode(header) + "." + encode(payload);
+        try {
+            Mac mac = Mac.getInstance(macAlgorithm);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), macAlgorithm));
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String sign(String payload) {
+        return sign(header(KID, "HS256"), payload, "HmacSHA256", SECRET);
+    }
+    
+    private Status status(String token) {
+        return jwtUtil.introspect(token).getStatus();
+    }
+    
+    @Test
+    void validTokenCarriesItsClaims() {
+        TokenIntrospection introspection = jwtUtil.introspect(jwtUtil.generateToken("alice", "STUDENT", 7L));
+        
+        assertThat(introspection.getStatus()).isEqualTo(Status.VALID);
+        VerifiedToken token = introspection.getToken();
+        assertThat(token.getUsername()).isEqualTo("alice");
+        assertThat(token.getRole()).isEqualTo("STUDENT");
+        assertThat(token.getUserId()).isEqualTo(7L);
+        assertThat(token.getTokenId()).isNotNull();
+        assertThat(token.getKeyId()).isEqualTo(KID);
+    }
+    
+    @Test
+    void tokenWithoutKidIsVerifiedWithTheLegacyKey() {
+        String token = sign("{\"alg\":\"HS256\"}", payload(""), "HmacSHA256", SECRET);
+        
+        assertThat(status(token)).isEqualTo(Status.VALID);
+    }
+    
+    @Test
+    void missingTokenIsReportedAsMissing() {
+        assertThat(status(null)).isEqualTo(Status.MISSING);
+        assertThat(status(" ")).isEqualTo(Status.MISSING);
+    }
+    
+    @Test
+    void tokensThatAreNotCompactJwsAreMalformed() {
+        String valid = jwtUtil.generateToken("alice", "STUDENT", 7L);
+        
+        assertThat(status("not-a-token")).isEqualTo(Status.MALFORMED);
+        assertThat(status("a.b")).isEqualTo(Status.MALFORMED);
+        assertThat(status(valid + ".extra")).isEqualTo(Status.MALFORMED);
+        assertThat(status("e30=.e30.e30")).isEqualTo(Status.MALFORMED);
+        assertThat(status("e30.e3!.e30")).isEqualTo(Status.MALFORMED);
+    }
+    
+    @Test
+    void signedPayloadsWithoutUsableClaimsAreMalformed() {
+        assertThat(status(sign("[\"alice\"]"))).isEqualTo(Status.MALFORMED);
+        assertThat(status(sign("{\"sub\":\"alice\"}"))).isEqualTo(Status.MALFORMED);
+        assertThat(status(sign("{\"sub\":\"alice\",\"exp\":"))).isEqualTo(Status.MALFORMED);
+    }
+    
+    @Test
+    void tokenSignedWithAKeyOutsideTheRingHasAnUnknownKey() {
+        String token = sign(header("retired", "HS256"), payload(""), "HmacSHA256", SECRET);
+        
+        assertThat(status(token)).isEqualTo(Status.UNKNOWN_KEY);
+    }
+    
+    @Test
+    void tokenSignedWithAnotherSecretHasAnInvalidSignature() {
+        String token = sign(header(KID, "HS256"), payload(""), "HmacSHA256", "fedcba9876543210fedcba9876543210");
+        
+        assertThat(status(token)).isEqualTo(Status.INVALID_SIGNATURE);
+    }
+    
+    @Test
+    void tamperedPayloadOrSignatureIsRejected() {
+        String token = jwtUtil.generateToken("alice", "STUDENT", 7L);
+        String[] parts = token.split("\\.");
+        String promoted = parts[0] + "." + encode(payload("").replace("STUDENT", "ADMIN")) + "." + parts[2];
+        char last = parts[2].charAt(0);
+        String flipped = parts[0] + "." + parts[1] + "." + (last == 'A' ? 'B' : 'A') + parts[2].substring(1);
+        
+        assertThat(status(promoted)).isEqualTo(Status.INVALID_SIGNATURE);
+        assertThat(status(flipped)).isEqualTo(Status.INVALID_SIGNATURE);
+        // Stripping the signature leaves no compact JWS at all
+        assertThat(status(parts[0] + "." + parts[1] + ".")).isEqualTo(Status.MALFORMED);
+    }
+    
+    @Test
+    void algorithmOtherThanTheKeysOwnIsRejected() {
+        // Correctly signed with the same secret, but under an algorithm the key is not registered for
+        String swapped = sign(header(KID, "HS512"), payload(""), "HmacSHA512", SECRET);
+        String none = sign(header(KID, "none"), payload(""), "HmacSHA256", SECRET);
+        String noAlg = sign("{\"kid\":\"" + KID + "\"}", payload(""), "HmacSHA256", SECRET);
+        
+        assertThat(status(swapped)).isEqualTo(Status.INVALID_SIGNATURE);
+        assertThat(status(none)).isEqualTo(Status.INVALID_SIGNATURE);
+        assertThat(status(noAlg)).isEqualTo(Status.INVALID_SIGNATURE);
+    }
+    
+    @Test
+    void tokenBeforeItsNotBeforeTimeIsNotYetValid() {
+        assertThat(status(sign(payload(",\"nbf\":" + seconds(30_000))))).isEqualTo(Status.NOT_YET_VALID);
+        assertThat(status(sign(payload(",\"nbf\":" + seconds(-30_000))))).isEqualTo(Status.VALID);
+    }
+    
+    @Test
+    void tokenPastItsExpiryIsExpired() {
+        String token = sign("{\"jti\":\"id-1\",\"sub\":\"alice\",\"exp\":" + seconds(-2_000) + "}");
+        
+        assertThat(status(token)).isEqualTo(Status.EXPIRED);
+    }
+    
+    @Test
+    void revokedTokenIsReportedAsRevoked() {
+        String token = jwtUtil.generateToken("alice", "STUDENT", 7L);
+        VerifiedToken verified = jwtUtil.introspect(token).getToken();
+        
+        revokedTokens.revoke(verified.getTokenId(), verified.getExpiresAtMillis());
+        
+        assertThat(status(token)).isEqualTo(Status.REVOKED);
+        assertThat(status(jwtUtil.generateToken("alice", "STUDENT", 7L))).isEqualTo(Status.VALID);
+    }
+}
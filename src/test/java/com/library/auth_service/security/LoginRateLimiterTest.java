@@ -0,0 +1,162 @@
+package com.library.auth_service.security;
+
+import com.library.auth_service.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+    
+    private static final long WINDOW = 60_000;
+    private static final long LOCKOUT = 15 * 60_000;
+    // Start of a window, so the sliding-window weights are easy to reason about
+    private static final long T0 = 1_000 * WINDOW;
+    
+    private LoginRateLimiter limiter;
+    
+    @BeforeEach
+    void setUp() {
+        limiter = limiter(100_000);
+    }
+    
+    private static LoginRateLimiter limiter(int maxKeys) {
+        LoginRateLimiter limiter = new LoginRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "window", Duration.ofMillis(WINDOW));
+        ReflectionTestUtils.setField(limiter, "maxAttemptsPerUsername", 3);
+        ReflectionTestUtils.setField(limiter, "maxAttemptsPerIp", 100);
+        ReflectionTestUtils.setField(limiter, "maxFailuresPerUsername", 2);
+        ReflectionTestUtils.setField(limiter, "maxFailuresPerIp", 50);
+        ReflectionTestUtils.setField(limiter, "lockoutDuration", Duration.ofMillis(LOCKOUT));
+        ReflectionTestUtils.setField(limiter, "maxKeys", maxKeys);
+        ReflectionTestUtils.setField(limiter, "sweepInterval", Duration.ofMinutes(1));
+        limiter.init();
+        return limiter;
+    }
+    
+    @Test
+    void rejectsAttemptsOverTheLimitWithinAWindow() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("alice", "10.0.0.1", T0 + i);
+        }
+        assertThatThrownBy(() -> limiter.acquire("alice", "10.0.0.1", T0 + 10))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfter())
+                        .isEqualTo(Duration.ofMillis(WINDOW - 10)));
+        // Usernames are counted case-insensitively, other usernames are not affected
+        assertThatThrownBy(() -> limiter.acquire("ALICE", "10.0.0.2", T0 + 10))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> limiter.acquire("bob", "10.0.0.1", T0 + 10)).doesNotThrowAnyException();
+    }
+    
+    @Test
+    void previousWindowCountsByItsOverlapAfterRollover() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("alice", null, T0 + i);
+        }
+        // Right after rollover the previous window still weighs just under its 3 attempts
+        limiter.acquire("alice", null, T0 + WINDOW + 1);
+        assertThatThrownBy(() -> limiter.acquire("alice", null, T0 + WINDOW + 2))
+                .isInstanceOf(TooManyRequestsException.class);
+        // Half way through it weighs 1.5, which with the one attempt above leaves room for one more
+        limiter.acquire("alice", null, T0 + WINDOW + WINDOW / 2);
+        assertThatThrownBy(() -> limiter.acquire("alice", null, T0 + WINDOW + WINDOW / 2 + 1))
+                .isInstanceOf(TooManyRequestsException.class);
+        // Two windows on, nothing counts any more
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("alice", null, T0 + 3 * WINDOW + i);
+        }
+    }
+    
+    @Test
+    void repeatedFailuresLockTheUsernameOutForTheLockoutDuration() {
+        limiter.acquire("alice", null, T0);
+        limiter.recordFailure("alice", null, T0);
+        limiter.acquire("alice", null, T0 + 1);
+        limiter.recordFailure("alice", null, T0 + 1);
+        
+        assertThatThrownBy(() -> limiter.acquire("alice", null, T0 + 5 * WINDOW))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfter())
+                        .isEqualTo(Duration.ofMillis(LOCKOUT + 1 - 5 * WINDOW)));
+        assertThatCode(() -> limiter.acquire("alice", null, T0 + 1 + LOCKOUT)).doesNotThrowAnyException();
+    }
+    
+    @Test
+    void successfulLoginClearsTheUsernameFailures() {
+        limiter.acquire("alice", null, T0);
+        limiter.recordFailure("alice", null, T0);
+        limiter.recordSuccess("alice");
+        limiter.acquire("alice", null, T0 + 1);
+        limiter.recordFailure("alice", null, T0 + 1);
+        
+        assertThatCode(() -> limiter.acquire("alice", null, T0 + 2)).doesNotThrowAnyException();
+    }
+    
+    @Test
+    void fullLimiterEvictsAnIdleCounterForANewKey() {
+        LoginRateLimiter small = limiter(2);
+        small.acquire("alice", null, T0);
+        small.acquire("bob", null, T0 + 1);
+        
+        small.acquire("carol", null, T0 + 2);
+        
+        assertThat(small.size()).isEqualTo(2);
+    }
+    
+    @Test
+    void fullLimiterFailsClosedForNewIpsWhenEveryCounterStillMatters() {
+        LoginRateLimiter small = limiter(2);
+        for (String ip : new String[] {"10.0.0.1", "10.0.0.2"}) {
+            small.acquire("alice", ip, T0);
+            small.recordFailure("alice", ip, T0);
+            small.recordSuccess("alice");
+        }
+        
+        assertThatThrownBy(() -> small.acquire("alice", "10.0.0.3", T0 + 1))
+                .isInstanceOf(TooManyRequestsException.class);
+        // Once the failures no longer count, their counters make room again
+        assertThatCode(() -> small.acquire("alice", "10.0.0.3", T0 + LOCKOUT + 1)).doesNotThrowAnyException();
+    }
+    
+    @Test
+    void fullLimiterAdmitsNewUsernamesUntracked() {
+        LoginRateLimiter small = limiter(2);
+        // A spray of failed logins over random usernames fills the limiter
+        for (String username : new String[] {"spray-1", "spray-2"}) {
+            small.acquire(username, null, T0);
+            small.recordFailure(username, null, T0);
+        }
+        
+        for (int i = 0; i < 5; i++) {
+            assertThatCode(() -> small.acquire("carol", null, T0 + 1)).doesNotThrowAnyException();
+        }
+        assertThat(small.size()).isEqualTo(2);
+    }
+    
+    @Test
+    void attemptRejectedForItsIpDoesNotCountAgainstTheUsername() {
+        LoginRateLimiter strict = limiter(100_000);
+        ReflectionTestUtils.setField(strict, "maxAttemptsPerIp", 1);
+        strict.init();
+        // 10.6.6.6 uses up its single attempt, then keeps trying alice
+        strict.acquire("bob", "10.6.6.6", T0);
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> strict.acquire("alice", "10.6.6.6", T0 + 1))
+                    .isInstanceOf(TooManyRequestsException.class);
+        }
+        
+        // alice still has all three of her attempts from other IPs
+        for (int i = 1; i <= 3; i++) {
+            strict.acquire("alice", "10.0.0." + i, T0 + 2);
+        }
+        assertThatThrownBy(() -> strict.acquire("alice", "10.0.0.4", T0 + 3))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
@@ -0,0 +1,196 @@
+package com.library.auth_service.security;
+
+import com.library.auth_service.exception.AuthenticationException;
+import com.library.auth_service.security.RefreshTokenStore.RefreshGrant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RefreshTokenStoreTest {
+    
+    @TempDir
+    Path dir;
+    
+    private final List<RefreshTokenStore> stores = new ArrayList<>();
+    
+    @AfterEach
+    void closeStores() throws IOException {
+        for (RefreshTokenStore store : stores) {
+            store.close();
+        }
+    }
+    
+    private RefreshTokenStore store(int maxSessionsPerUser, int maxSessions, String storeFile) {
+        return store(maxSessionsPerUser, maxSessions, storeFile, Duration.ofDays(30));
+    }
+    
+    private RefreshTokenStore store(int maxSessionsPerUser, int maxSessions, String storeFile,
+                                    Duration maxSessionLifetime) {
+        RefreshTokenStore store = new RefreshTokenStore();
+        ReflectionTestUtils.setField(store, "expiration", Duration.ofDays(14));
+        ReflectionTestUtils.setField(store, "maxSessionLifetime", maxSessionLifetime);
+        ReflectionTestUtils.setField(store, "storeFile", storeFile);
+        ReflectionTestUtils.setField(store, "sweepInterval", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(store, "maxSessionsPerUser", maxSessionsPerUser);
+        ReflectionTestUtils.setField(store, "maxSessions", maxSessions);
+        store.init();
+        stores.add(store);
+        return store;
+    }
+    
+    private RefreshTokenStore store() {
+        return store(10, 1000, "");
+    }
+    
+    @Test
+    void rotationIssuesASuccessorWithTheSameClaims() {
+        RefreshTokenStore store = store();
+        String token = store.issue("alice", "STUDENT", 7L);
+        
+        RefreshGrant grant = store.rotate(token);
+        
+        assertThat(grant.getRefreshToken()).isNotEqualTo(token);
+        assertThat(grant.getUsername()).isEqualTo("alice");
+        assertThat(grant.getRole()).isEqualTo("STUDENT");
+        assertThat(grant.getUserId()).isEqualTo(7L);
+    }
+    
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() {
+        RefreshTokenStore store = store();
+        String first = store.issue("alice", "STUDENT", 7L);
+        String second = store.rotate(first).getRefreshToken();
+        
+        assertThatThrownBy(() -> store.rotate(first))
+                .isInstanceOf(AuthenticationException.class)
+                .hasMessage("Refresh token has already been used");
+        assertThatThrownBy(() -> store.rotate(second)).isInstanceOf(AuthenticationException.class);
+        assertThat(store.sessions()).isZero();
+    }
+    
+    @Test
+    void familyOnlyRemembersTheTokenItReplaced() {
+        RefreshTokenStore store = store();
+        String first = store.issue("alice", "STUDENT", 7L);
+        String second = store.rotate(first).getRefreshToken();
+        String third = store.rotate(second).getRefreshToken();
+        
+        // Two rotations back the token is unknown, which is rejected without ending the session
+        assertThatThrownBy(() -> store.rotate(first))
+                .isInstanceOf(AuthenticationException.class)
+                .hasMessage("Invalid or expired refresh token");
+        assertThat(store.rotate(third).getUsername()).isEqualTo("alice");
+    }
+    
+    @Test
+    void newLoginBeyondThePerUserLimitEndsTheOldestSession() {
+        RefreshTokenStore store = store(2, 1000, "");
+        String oldest = store.issue("alice", "STUDENT", 7L);
+        String middle = store.issue("alice", "STUDENT", 7L);
+        String other = store.issue("bob", "STUDENT", 8L);
+        String newest = store.issue("alice", "STUDENT", 7L);
+        
+        assertThatThrownBy(() -> store.rotate(oldest)).isInstanceOf(AuthenticationException.class);
+        store.rotate(middle);
+        store.rotate(other);
+        store.rotate(newest);
+        assertThat(store.sessions()).isEqualTo(3);
+    }
+    
+    @Test
+    void storeBeyondMaxSessionsDropsTheOldestSession() {
+        RefreshTokenStore store = store(10, 2, "");
+        String first = store.issue("alice", "STUDENT", 7L);
+        String second = store.issue("bob", "STUDENT", 8L);
+        String third = store.issue("carol", "STUDENT", 9L);
+        
+        assertThatThrownBy(() -> store.rotate(first)).isInstanceOf(AuthenticationException.class);
+        store.rotate(second);
+        store.rotate(third);
+        assertThat(store.sessions()).isEqualTo(2);
+    }
+    
+    @Test
+    void replayedLogRestoresSessionsRotationsAndRevocations() throws IOException {
+        String file = dir.resolve("refresh.log").toString();
+        RefreshTokenStore store = store(2, 1000, file);
+        String rotated = store.issue("alice", "STUDENT", 7L);
+        String current = store.rotate(rotated).getRefreshToken();
+        String revoked = store.issue("bob", null, null);
+        store.revoke(revoked);
+        String evicted = store.issue("carol", "ADMIN", 9L);
+        String kept = store.issue("carol", "ADMIN", 9L);
+        String newest = store.issue("carol", "ADMIN", 9L);
+        store.close();
+        
+        RefreshTokenStore restarted = store(2, 1000, file);
+        
+        assertThat(restarted.sessions()).isEqualTo(3);
+        assertThatThrownBy(() -> restarted.rotate(revoked)).isInstanceOf(AuthenticationException.class);
+        assertThatThrownBy(() -> restarted.rotate(evicted)).isInstanceOf(AuthenticationException.class);
+        assertThat(restarted.rotate(kept).getRole()).isEqualTo("ADMIN");
+        assertThat(restarted.rotate(newest).getUserId()).isEqualTo(9L);
+        // Reuse is still detected after a restart
+        assertThatThrownBy(() -> restarted.rotate(rotated))
+                .hasMessage("Refresh token has already been used");
+        assertThatThrownBy(() -> restarted.rotate(current)).isInstanceOf(AuthenticationException.class);
+    }
+    
+    @Test
+    void rotationCannotExtendASessionPastItsMaximumLifetime() throws InterruptedException {
+        RefreshTokenStore store = store(10, 1000, "", Duration.ofMillis(200));
+        String first = store.issue("alice", "STUDENT", 7L);
+        String second = store.rotate(first).getRefreshToken();
+        
+        Thread.sleep(250);
+        
+        assertThatThrownBy(() -> store.rotate(second))
+                .isInstanceOf(AuthenticationException.class);
+        assertThat(store.sessions()).isZero();
+    }
+    
+    @Test
+    void sessionLifetimeCountsFromTheLoginAcrossRestarts() throws IOException, InterruptedException {
+        String file = dir.resolve("refresh.log").toString();
+        RefreshTokenStore store = store(10, 1000, file, Duration.ofMillis(300));
+        String first = store.issue("alice", "STUDENT", 7L);
+        Thread.sleep(150);
+        String second = store.rotate(first).getRefreshToken();
+        store.close();
+        
+        // The successor was issued later, but the session still ends 300ms after the login
+        RefreshTokenStore restarted = store(10, 1000, file, Duration.ofMillis(300));
+        Thread.sleep(200);
+        
+        assertThatThrownBy(() -> restarted.rotate(second))
+                .isInstanceOf(AuthenticationException.class);
+    }
+    
+    @Test
+    void logWithoutLoginTimesCountsSessionsFromTheirFirstToken() throws Exception {
+        Path file = dir.resolve("refresh.log");
+        long expiresAt = System.currentTimeMillis() + Duration.ofDays(14).toMillis();
+        // A record as written before the login time was logged, for the refresh token "old-token"
+        String digest = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest("old-token".getBytes(StandardCharsets.UTF_8)));
+        Files.writeString(file, "I\t" + digest + "\tfamily-1\t" + expiresAt + "\t7\tSTUDENT\talice\n");
+        
+        RefreshTokenStore store = store(10, 1000, file.toString());
+        
+        assertThat(store.rotate("old-token").getUsername()).isEqualTo("alice");
+    }
+}
@@ -0,0 +1,129 @@
+package com.library.auth_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenStoreTest {
+    
+    @TempDir
+    Path dir;
+    
+    private static RevokedTokenStore store(int expectedRevocations, Duration sweepInterval) {
+        return store(expectedRevocations, sweepInterval, "");
+    }
+    
+    private static RevokedTokenStore store(int expectedRevocations, Duration sweepInterval, String storeFile) {
+        RevokedTokenStore store = new RevokedTokenStore();
+        ReflectionTestUtils.setField(store, "expectedRevocations", expectedRevocations);
+        ReflectionTestUtils.setField(store, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(store, "sweepInterval", sweepInterval);
+        ReflectionTestUtils.setField(store, "storeFile", storeFile);
+        store.init();
+        return store;
+    }
+    
+    private static int liveIds(RevokedTokenStore store) {
+        return ((Map<?, ?>) ReflectionTestUtils.getField(store, "revoked")).size();
+    }
+    
+    @Test
+    void revokedIdsStayRevokedWhileTheFilterGrows() {
+        RevokedTokenStore store = store(4, Duration.ofMinutes(10));
+        long until = System.currentTimeMillis() + 60_000;
+        
+        // 100 ids in a filter sized for 4 force several rebuilds at double the capacity
+        for (int i = 0; i < 100; i++) {
+            store.revoke("revoked-" + i, until);
+        }
+        
+        for (int i = 0; i < 100; i++) {
+            assertThat(store.isRevoked("revoked-" + i)).as("revoked-" + i).isTrue();
+        }
+        for (int i = 0; i < 100; i++) {
+            assertThat(store.isRevoked("live-" + i)).as("live-" + i).isFalse();
+        }
+        assertThat(store.isRevoked(null)).isFalse();
+    }
+    
+    @Test
+    void sweepRebuildsTheFilterWithOnlyTheLiveIds() throws InterruptedException {
+        RevokedTokenStore store = store(100, Duration.ofMillis(1));
+        long now = System.currentTimeMillis();
+        store.revoke("short", now + 100);
+        store.revoke("long", now + 60_000);
+        assertThat(store.isRevoked("short")).isTrue();
+        
+        Thread.sleep(150);
+        
+        // The lookup sweeps, dropping the expired id and rebuilding the filter without it
+        assertThat(store.isRevoked("short")).isFalse();
+        assertThat(store.isRevoked("long")).isTrue();
+        assertThat(liveIds(store)).isEqualTo(1);
+        store.revoke("later", System.currentTimeMillis() + 60_000);
+        assertThat(store.isRevoked("later")).isTrue();
+        assertThat(store.isRevoked("long")).isTrue();
+    }
+    
+    @Test
+    void expiredIdIsNoLongerRevokedEvenBeforeASweep() throws InterruptedException {
+        RevokedTokenStore store = store(100, Duration.ofMinutes(10));
+        store.revoke("short", System.currentTimeMillis() + 100);
+        
+        Thread.sleep(150);
+        
+        assertThat(store.isRevoked("short")).isFalse();
+    }
+    
+    @Test
+    void alreadyExpiredTokensAreNotStored() {
+        RevokedTokenStore store = store(100, Duration.ofMinutes(10));
+        
+        store.revoke("expired", System.currentTimeMillis() - 1);
+        store.revoke(null, System.currentTimeMillis() + 60_000);
+        
+        assertThat(store.isRevoked("expired")).isFalse();
+        assertThat(liveIds(store)).isZero();
+    }
+    
+    @Test
+    void revokingAgainKeepsTheLaterExpiry() throws InterruptedException {
+        RevokedTokenStore store = store(100, Duration.ofMinutes(10));
+        long now = System.currentTimeMillis();
+        store.revoke("id", now + 60_000);
+        store.revoke("id", now + 100);
+        
+        Thread.sleep(150);
+        
+        assertThat(store.isRevoked("id")).isTrue();
+    }
+    
+    @Test
+    void revocationsSurviveARestartAndExpiredOnesAreCompactedAway() throws IOException, InterruptedException {
+        Path file = dir.resolve("revoked.log");
+        RevokedTokenStore store = store(100, Duration.ofMinutes(10), file.toString());
+        long now = System.currentTimeMillis();
+        store.revoke("logged-out", now + 60_000);
+        store.revoke("tab\tand\nnewline", now + 60_000);
+        store.revoke("short", now + 100);
+        store.close();
+        
+        Thread.sleep(150);
+        RevokedTokenStore restarted = store(100, Duration.ofMinutes(10), file.toString());
+        
+        assertThat(restarted.isRevoked("logged-out")).isTrue();
+        assertThat(restarted.isRevoked("tab\tand\nnewline")).isTrue();
+        assertThat(restarted.isRevoked("short")).isFalse();
+        assertThat(liveIds(restarted)).isEqualTo(2);
+        assertThat(Files.readAllLines(file)).hasSize(2);
+        restarted.close();
+    }
+}
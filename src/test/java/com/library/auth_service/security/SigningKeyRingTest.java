@@ -0,0 +1,44 @@
+package com.library.auth_service.security;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningKeyRingTest {
+    
+    private static SigningKeyRing ring(String algorithm, boolean allowEphemeralKey) {
+        SigningKeyRing ring = new SigningKeyRing();
+        ReflectionTestUtils.setField(ring, "secret", "0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(ring, "defaultKid", "primary");
+        ReflectionTestUtils.setField(ring, "keysFile", "");
+        ReflectionTestUtils.setField(ring, "algorithm", algorithm);
+        ReflectionTestUtils.setField(ring, "privateKeyFile", "");
+        ReflectionTestUtils.setField(ring, "publicKeyFile", "");
+        ReflectionTestUtils.setField(ring, "previousPublicKeyFiles", new String[0]);
+        ReflectionTestUtils.setField(ring, "allowEphemeralKey", allowEphemeralKey);
+        return ring;
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"ES256", "EdDSA"})
+    void asymmetricAlgorithmWithoutAPrivateKeyFailsStartup(String algorithm) {
+        assertThatThrownBy(() -> ring(algorithm, false).init())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.asymmetric.private-key-file");
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"ES256", "EdDSA"})
+    void ephemeralKeyIsOnlyGeneratedWhenExplicitlyAllowed(String algorithm) {
+        SigningKeyRing ring = ring(algorithm, true);
+        ring.init();
+        try {
+            assertThat(ring.getActiveKey().getAlgorithm()).isEqualTo(algorithm);
+        } finally {
+            ring.shutdown();
+        }
+    }
+}
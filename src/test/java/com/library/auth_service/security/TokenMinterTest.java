@@ -0,0 +1,132 @@
+package com.library.auth_service.security;
+
+import com.library.auth_service.security.TokenIntrospection.Status;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenMinterTest {
+    
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    // Quotes, backslashes, control characters, non-ASCII and a surrogate pair all need care in the JSON writer
+    private static final String ESCAPED_NAME = "o'\"brien\\ \n\t\u0001\u001f</script> Zoë 日本 😀";
+    
+    private final TokenMinter minter = new TokenMinter();
+    private final List<SigningKeyRing> rings = new ArrayList<>();
+    
+    @AfterEach
+    void closeRings() {
+        rings.forEach(SigningKeyRing::shutdown);
+    }
+    
+    /**
+     * Ring for jwt.algorithm; asymmetric algorithms sign with a generated key pair
+     */
+    private SigningKeyRing ring(String algorithm) {
+        SigningKeyRing ring = new SigningKeyRing();
+        ReflectionTestUtils.setField(ring, "secret", SECRET);
+        ReflectionTestUtils.setField(ring, "defaultKid", "primary");
+        ReflectionTestUtils.setField(ring, "keysFile", "");
+        ReflectionTestUtils.setField(ring, "algorithm", algorithm);
+        ReflectionTestUtils.setField(ring, "privateKeyFile", "");
+        ReflectionTestUtils.setField(ring, "publicKeyFile", "");
+        ReflectionTestUtils.setField(ring, "previousPublicKeyFiles", new String[0]);
+        ReflectionTestUtils.setField(ring, "allowEphemeralKey", true);
+        ring.init();
+        rings.add(ring);
+        return ring;
+    }
+    
+    /**
+     * Verify with a parser built from the key material alone, independent of SigningKey
+     */
+    private static Jws<Claims> parse(SigningKeyRing ring, String algorithm, String token) {
+        if ("HMAC".equals(algorithm)) {
+            return Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .build()
+                    .parseSignedClaims(token);
+        }
+        KeyPair keyPair = (KeyPair) ReflectionTestUtils.getField(ring, "ephemeralKeyPair");
+        return Jwts.parser().verifyWith(keyPair.getPublic()).build().parseSignedClaims(token);
+    }
+    
+    private static JwtUtil jwtUtil(SigningKeyRing ring) {
+        RevokedTokenStore revokedTokens = new RevokedTokenStore();
+        ReflectionTestUtils.setField(revokedTokens, "expectedRevocations", 100);
+        ReflectionTestUtils.setField(revokedTokens, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(revokedTokens, "sweepInterval", Duration.ofMinutes(1));
+        revokedTokens.init();
+        return new JwtUtil(ring, revokedTokens);
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"HMAC", "ES256", "EdDSA"})
+    void mintedTokenVerifiesWithJjwtAndIntrospection(String algorithm) {
+        SigningKeyRing ring = ring(algorithm);
+        SigningKey key = ring.getActiveKey();
+        long now = System.currentTimeMillis();
+        
+        String token = minter.mint(key, ESCAPED_NAME, "ADMIN\"/\\", Long.MAX_VALUE, now, now + 60_000);
+        
+        Jws<Claims> jws = parse(ring, algorithm, token);
+        assertThat(jws.getHeader().getKeyId()).isEqualTo(key.getKid());
+        assertThat(jws.getHeader().getAlgorithm()).isEqualTo(key.getAlgorithm());
+        Claims claims = jws.getPayload();
+        assertThat(claims.getSubject()).isEqualTo(ESCAPED_NAME);
+        assertThat(claims.get("role", String.class)).isEqualTo("ADMIN\"/\\");
+        assertThat(claims.get("userId", Long.class)).isEqualTo(Long.MAX_VALUE);
+        assertThat(claims.getId()).hasSize(36);
+        assertThat(claims.getIssuedAt().getTime()).isEqualTo(now / 1000 * 1000);
+        assertThat(claims.getExpiration().getTime()).isEqualTo((now + 60_000) / 1000 * 1000);
+        
+        TokenIntrospection introspection = jwtUtil(ring).introspect(token);
+        assertThat(introspection.getStatus()).isEqualTo(Status.VALID);
+        VerifiedToken verified = introspection.getToken();
+        assertThat(verified.getUsername()).isEqualTo(ESCAPED_NAME);
+        assertThat(verified.getRole()).isEqualTo("ADMIN\"/\\");
+        assertThat(verified.getUserId()).isEqualTo(Long.MAX_VALUE);
+        assertThat(verified.getTokenId()).isEqualTo(claims.getId());
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"HMAC", "ES256", "EdDSA"})
+    void nullClaimsAreLeftOut(String algorithm) {
+        SigningKeyRing ring = ring(algorithm);
+        long now = System.currentTimeMillis();
+        
+        String token = minter.mint(ring.getActiveKey(), "alice", null, null, now, now + 60_000);
+        
+        Claims claims = parse(ring, algorithm, token).getPayload();
+        assertThat(claims).doesNotContainKeys("role", "userId");
+        assertThat(claims.getSubject()).isEqualTo("alice");
+        assertThat(jwtUtil(ring).introspect(token).getToken().getUserId()).isNull();
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"HMAC", "ES256", "EdDSA"})
+    void pooledBuffersDoNotLeakBetweenTokens(String algorithm) {
+        SigningKeyRing ring = ring(algorithm);
+        long now = System.currentTimeMillis();
+        
+        minter.mint(ring.getActiveKey(), ESCAPED_NAME.repeat(20), "ADMIN", 1L, now, now + 60_000);
+        String shorter = minter.mint(ring.getActiveKey(), "bob", "STUDENT", 2L, now, now + 60_000);
+        
+        Claims claims = parse(ring, algorithm, shorter).getPayload();
+        assertThat(claims.getSubject()).isEqualTo("bob");
+        assertThat(claims.get("role", String.class)).isEqualTo("STUDENT");
+    }
+}
@@ -0,0 +1,120 @@
+package com.library.auth_service.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+    
+    @TempDir
+    Path dir;
+    
+    private Path keysFile;
+    private SigningKeyRing keyRing;
+    private VerifiedTokenCache cache;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        keysFile = dir.resolve("keys.properties");
+        Files.writeString(keysFile, "active-kid=2024-11\nkey.2024-11=" + "k".repeat(32) + "\n");
+        keyRing = new SigningKeyRing();
+        ReflectionTestUtils.setField(keyRing, "secret", "0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(keyRing, "defaultKid", "primary");
+        ReflectionTestUtils.setField(keyRing, "keysFile", keysFile.toString());
+        ReflectionTestUtils.setField(keyRing, "algorithm", "HMAC");
+        ReflectionTestUtils.setField(keyRing, "privateKeyFile", "");
+        ReflectionTestUtils.setField(keyRing, "publicKeyFile", "");
+        ReflectionTestUtils.setField(keyRing, "previousPublicKeyFiles", new String[0]);
+        keyRing.init();
+        cache = cache(100);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        keyRing.shutdown();
+    }
+    
+    private VerifiedTokenCache cache(int maxSize) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(keyRing);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSize", maxSize);
+        return cache;
+    }
+    
+    private static VerifiedToken verified(String kid, long expiresAtMillis) {
+        return new VerifiedToken("alice", "STUDENT", 7L, "id-1", expiresAtMillis, kid);
+    }
+    
+    private static VerifiedToken verified(String kid) {
+        return verified(kid, System.currentTimeMillis() + 60_000);
+    }
+    
+    @Test
+    void returnsTheClaimsOfAVerifiedTokenAndNothingForOthers() {
+        VerifiedToken verified = verified("2024-11");
+        cache.put("token-a", verified);
+        
+        assertThat(cache.get("token-a")).isSameAs(verified);
+        assertThat(cache.get("token-b")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+    
+    @Test
+    void disabledCacheStoresNothing() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        cache.put("token-a", verified("2024-11"));
+        
+        assertThat(cache.get("token-a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+    
+    @Test
+    void entryIsDroppedOnceItsKeyLeavesTheRing() throws IOException {
+        cache.put("retired", verified("2024-11"));
+        cache.put("legacy", verified(null));
+        cache.put("primary", verified("primary"));
+        
+        // Roll to a new key and drop the old one
+        Files.writeString(keysFile, "active-kid=2024-12\nkey.2024-12=" + "n".repeat(32) + "\n");
+        keyRing.reload();
+        
+        assertThat(cache.get("retired")).isNull();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        // The key derived from jwt.secret is always part of the ring
+        assertThat(cache.get("legacy")).isNotNull();
+        assertThat(cache.get("primary")).isNotNull();
+    }
+    
+    @Test
+    void expiredEntryIsAMiss() {
+        cache.put("expired", verified("2024-11", System.currentTimeMillis() - 1));
+        
+        assertThat(cache.get("expired")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+    
+    @Test
+    void fullCacheDropsExpiredEntriesFirstThenEvictsDownToTheLowWaterMark() {
+        VerifiedTokenCache small = cache(20);
+        long now = System.currentTimeMillis();
+        small.put("expired", verified("2024-11", now - 1));
+        for (int i = 0; i < 20; i++) {
+            small.put("token-" + i, verified("2024-11"));
+        }
+        
+        // 21 entries: the expired one goes first, then live ones down to 90% of the maximum
+        assertThat(small.size()).isEqualTo(18);
+        assertThat(small.getEvictions()).isEqualTo(3);
+        assertThat(small.get("expired")).isNull();
+    }
+}
@@ -0,0 +1,164 @@
+package com.library.auth_service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    
+    private static final int FOLLOWERS = 8;
+    
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(FOLLOWERS + 1);
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Call that blocks until released, so that followers can join it while it is in flight
+     */
+    private String blockingCall(String result) {
+        calls.incrementAndGet();
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (result == null) {
+            throw new IllegalStateException("user service unavailable");
+        }
+        return result;
+    }
+    
+    /**
+     * Start a leader running blockingCall and followers for the same key, then release the leader
+     * once every follower has reached the in-flight call
+     */
+    private List<Future<String>> runConcurrently(String result) throws InterruptedException {
+        List<Future<String>> outcomes = new ArrayList<>();
+        outcomes.add(executor.submit(() -> singleFlight.execute("alice", () -> blockingCall(result))));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Thread> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            outcomes.add(executor.submit(() -> {
+                synchronized (followers) {
+                    followers.add(Thread.currentThread());
+                }
+                return singleFlight.execute("alice", () -> blockingCall(result));
+            }));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!allWaiting(followers) && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        return outcomes;
+    }
+    
+    private static boolean allWaiting(List<Thread> followers) {
+        synchronized (followers) {
+            return followers.size() == FOLLOWERS
+                    && followers.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING);
+        }
+    }
+    
+    @Test
+    void concurrentCallsForTheSameKeyShareOneExecution() throws Exception {
+        for (Future<String> outcome : runConcurrently("user-7")) {
+            assertThat(outcome.get(5, TimeUnit.SECONDS)).isEqualTo("user-7");
+        }
+        assertThat(calls.get()).isEqualTo(1);
+    }
+    
+    @Test
+    void exceptionReachesEveryCallerUnwrapped() throws Exception {
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<String> outcome : runConcurrently(null)) {
+            assertThatThrownBy(() -> outcome.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .satisfies(e -> failures.add(e.getCause()));
+        }
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(failures).hasSize(FOLLOWERS + 1)
+                .allSatisfy(e -> assertThat(e).isInstanceOf(IllegalStateException.class)
+                        .hasMessage("user service unavailable"));
+    }
+    
+    @Test
+    void keyIsReleasedOnceTheCallFinishes() {
+        assertThat(singleFlight.execute("alice", () -> "first")).isEqualTo("first");
+        assertThatThrownBy(() -> singleFlight.execute("alice", () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+        
+        assertThat(singleFlight.execute("alice", () -> "third")).isEqualTo("third");
+    }
+    
+    @Test
+    void differentKeysAreNotCoalesced() throws Exception {
+        Future<String> alice = executor.submit(() -> singleFlight.execute("alice", () -> blockingCall("user-7")));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        assertThat(singleFlight.execute("bob", () -> "user-8")).isEqualTo("user-8");
+        release.countDown();
+        assertThat(alice.get(5, TimeUnit.SECONDS)).isEqualTo("user-7");
+    }
+    
+    @Test
+    void asyncSubscribersShareOneSubscriptionAndItsResult() throws Exception {
+        Sinks.One<String> sink = Sinks.one();
+        Mono<String> first = singleFlight.executeAsync("alice", () -> {
+            calls.incrementAndGet();
+            return sink.asMono();
+        });
+        Mono<String> second = singleFlight.executeAsync("alice", () -> {
+            calls.incrementAndGet();
+            return Mono.just("other");
+        });
+        
+        CompletableFuture<String> firstResult = first.toFuture();
+        CompletableFuture<String> secondResult = second.toFuture();
+        sink.tryEmitValue("user-7");
+        
+        assertThat(firstResult.get(5, TimeUnit.SECONDS)).isEqualTo("user-7");
+        assertThat(secondResult.get(5, TimeUnit.SECONDS)).isEqualTo("user-7");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(singleFlight.executeAsync("alice", () -> Mono.just("fresh")).block()).isEqualTo("fresh");
+    }
+    
+    @Test
+    void asyncErrorReachesEverySubscriber() {
+        Sinks.One<String> sink = Sinks.one();
+        CompletableFuture<String> first = singleFlight.executeAsync("alice", sink::asMono).toFuture();
+        CompletableFuture<String> second = singleFlight.executeAsync("alice", () -> Mono.just("other")).toFuture();
+        
+        sink.tryEmitError(new IllegalStateException("user service unavailable"));
+        
+        assertThatThrownBy(first::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> singleFlight.executeAsync("alice", () -> {
+            throw new IllegalArgumentException("bad call");
+        }).block()).isInstanceOf(IllegalArgumentException.class);
+    }
+}
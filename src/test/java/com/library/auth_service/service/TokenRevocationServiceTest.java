@@ -0,0 +1,83 @@
+package com.library.auth_service.service;
+
+import com.library.auth_service.dto.RevokeTokenRequest;
+import com.library.auth_service.exception.ForbiddenException;
+import com.library.auth_service.security.RefreshTokenStore;
+import com.library.auth_service.security.RevokedTokenStore;
+import com.library.auth_service.security.TokenIntrospection;
+import com.library.auth_service.security.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+    
+    private final TokenValidationService tokenValidationService = mock(TokenValidationService.class);
+    private final RevokedTokenStore revokedTokens = mock(RevokedTokenStore.class);
+    private final RefreshTokenStore refreshTokenStore = mock(RefreshTokenStore.class);
+    private TokenRevocationService service;
+    
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationService(tokenValidationService, revokedTokens, refreshTokenStore);
+        ReflectionTestUtils.setField(service, "expiration", 60_000L);
+        ReflectionTestUtils.setField(service, "adminRole", "ADMIN");
+    }
+    
+    private void givenToken(String token, String role, String tokenId) {
+        VerifiedToken verified = new VerifiedToken("alice", role, 7L, tokenId, System.currentTimeMillis() + 60_000, null);
+        when(tokenValidationService.introspect(token)).thenReturn(TokenIntrospection.valid(verified));
+    }
+    
+    private static RevokeTokenRequest request(String token, List<String> tokenIds) {
+        RevokeTokenRequest request = new RevokeTokenRequest();
+        request.setToken(token);
+        request.setTokenIds(tokenIds);
+        return request;
+    }
+    
+    @Test
+    void nonAdminRevokingTokenIdsRevokesNothing() {
+        givenToken("caller", "STUDENT", "caller-id");
+        givenToken("victim", "STUDENT", "victim-id");
+        
+        assertThatThrownBy(() -> service.revoke("Bearer caller", request("victim", List.of("other-id"))))
+                .isInstanceOf(ForbiddenException.class);
+        
+        verify(revokedTokens, never()).revoke(anyString(), anyLong());
+        verifyNoInteractions(refreshTokenStore);
+    }
+    
+    @Test
+    void adminRevokesThePresentedTokenAndTheTokenIds() {
+        givenToken("caller", "ADMIN", "caller-id");
+        givenToken("victim", "STUDENT", "victim-id");
+        
+        service.revoke("Bearer caller", request("victim", List.of("other-id")));
+        
+        verify(revokedTokens).revoke(eq("victim-id"), anyLong());
+        verify(revokedTokens).revoke(eq("other-id"), anyLong());
+        verify(revokedTokens, never()).revoke(eq("caller-id"), anyLong());
+    }
+    
+    @Test
+    void presentedTokenAloneNeedsNoAuthorization() {
+        givenToken("victim", "STUDENT", "victim-id");
+        
+        service.revoke(null, request("victim", null));
+        
+        verify(revokedTokens).revoke(eq("victim-id"), anyLong());
+    }
+}
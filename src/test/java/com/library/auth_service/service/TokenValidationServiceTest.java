@@ -0,0 +1,114 @@
+package com.library.auth_service.service;
+
+import com.library.auth_service.audit.AuditPublisher;
+import com.library.auth_service.dto.TokenValidationResponse;
+import com.library.auth_service.exception.InvalidRequestException;
+import com.library.auth_service.logging.RequestIds;
+import com.library.auth_service.security.JwtUtil;
+import com.library.auth_service.security.RevokedTokenStore;
+import com.library.auth_service.security.TokenIntrospection;
+import com.library.auth_service.security.VerifiedToken;
+import com.library.auth_service.security.VerifiedTokenCache;
+import com.library.auth_service.userstatus.UserStatusCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenValidationServiceTest {
+    
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final Map<String, String> requestIds = new ConcurrentHashMap<>();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+    private TokenValidationService service;
+    
+    @BeforeEach
+    void setUp() {
+        service = new TokenValidationService(jwtUtil, mock(VerifiedTokenCache.class), mock(RevokedTokenStore.class),
+                mock(AuthMetrics.class), mock(AuditPublisher.class), mock(UserStatusCache.class));
+        ReflectionTestUtils.setField(service, "batchMaxSize", 100);
+        ReflectionTestUtils.setField(service, "batchParallelThreshold", 8);
+        ReflectionTestUtils.setField(service, "batchParallelism", 4);
+        ReflectionTestUtils.setField(service, "batchQueueSize", 64);
+        service.init();
+        // Every token is valid for the user named like it; odd ones are rejected
+        when(jwtUtil.introspect(anyString())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            requestIds.put(token, String.valueOf(MDC.get(RequestIds.MDC_KEY)));
+            threads.add(Thread.currentThread().getName());
+            if (Integer.parseInt(token.substring("token-".length())) % 2 == 1) {
+                return TokenIntrospection.failure(TokenIntrospection.Status.EXPIRED);
+            }
+            return TokenIntrospection.valid(
+                    new VerifiedToken(token, "STUDENT", 7L, token + "-id", System.currentTimeMillis() + 60_000, null));
+        });
+    }
+    
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        MDC.clear();
+    }
+    
+    private static List<String> tokens(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "token-" + i).toList();
+    }
+    
+    private static void assertInOrder(List<TokenValidationResponse> results, int count) {
+        assertThat(results).hasSize(count);
+        for (int i = 0; i < count; i++) {
+            TokenValidationResponse result = results.get(i);
+            assertThat(result.isValid()).as("token-" + i).isEqualTo(i % 2 == 0);
+            if (result.isValid()) {
+                assertThat(result.getUsername()).isEqualTo("token-" + i);
+            }
+        }
+    }
+    
+    @Test
+    void smallBatchIsValidatedInOrderOnTheCallingThread() {
+        assertInOrder(service.validateAll(tokens(5)), 5);
+        
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+    }
+    
+    @Test
+    void largeBatchIsSplitAcrossTheWorkersAndKeepsItsOrder() {
+        assertInOrder(service.validateAll(tokens(100)), 100);
+        
+        assertThat(threads).contains(Thread.currentThread().getName())
+                .anyMatch(name -> name.startsWith("token-batch-"));
+    }
+    
+    @Test
+    void workersLogWithTheCallersRequestId() {
+        MDC.put(RequestIds.MDC_KEY, "req-42");
+        
+        service.validateAll(tokens(40));
+        
+        assertThat(requestIds).hasSize(40).allSatisfy((token, requestId) -> assertThat(requestId).isEqualTo("req-42"));
+        assertThat(MDC.get(RequestIds.MDC_KEY)).isEqualTo("req-42");
+    }
+    
+    @Test
+    void batchOverTheLimitIsRejectedWithoutValidatingAnything() {
+        assertThatThrownBy(() -> service.validateAll(tokens(101)))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("maximum is 100");
+        
+        assertThat(threads).isEmpty();
+    }
+}
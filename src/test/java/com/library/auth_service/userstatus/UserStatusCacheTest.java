@@ -0,0 +1,80 @@
+package com.library.auth_service.userstatus;
+
+import com.library.auth_service.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserStatusCacheTest {
+    
+    private static UserStatusCache cache(int maxSize, Duration retention, Duration sweepInterval) {
+        UserStatusCache cache = new UserStatusCache();
+        ReflectionTestUtils.setField(cache, "maxSize", maxSize);
+        ReflectionTestUtils.setField(cache, "retention", retention);
+        ReflectionTestUtils.setField(cache, "sweepInterval", sweepInterval);
+        return cache;
+    }
+    
+    private static UserResponse user(long id, boolean restricted) {
+        UserResponse user = new UserResponse();
+        user.setId(id);
+        user.setUsername("user-" + id);
+        user.setRestricted(restricted);
+        return user;
+    }
+    
+    @Test
+    void onlyBlockedUsersAreHeld() {
+        UserStatusCache cache = cache(100, Duration.ofDays(30), Duration.ofMinutes(10));
+        cache.update(user(1, true));
+        cache.update(user(2, false));
+        cache.delete(3L);
+        
+        assertThat(cache.isBlocked(1L)).isTrue();
+        assertThat(cache.isBlocked(2L)).isFalse();
+        assertThat(cache.get(3L).isDeleted()).isTrue();
+        assertThat(cache.isBlocked(null)).isFalse();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+    
+    @Test
+    void loginCheckedByUserServiceLiftsABlockWhoseUnblockEventWasLost() {
+        UserStatusCache cache = cache(100, Duration.ofDays(30), Duration.ofMinutes(10));
+        cache.update(user(1, true));
+        
+        cache.update(user(1, false));
+        
+        assertThat(cache.isBlocked(1L)).isFalse();
+        assertThat(cache.size()).isZero();
+    }
+    
+    @Test
+    void entriesExpireAfterTheRetention() throws InterruptedException {
+        UserStatusCache cache = cache(100, Duration.ofMillis(100), Duration.ofMinutes(10));
+        cache.delete(1L);
+        cache.update(user(2, true));
+        
+        Thread.sleep(150);
+        
+        assertThat(cache.isBlocked(1L)).isFalse();
+        assertThat(cache.isBlocked(2L)).isFalse();
+    }
+    
+    @Test
+    void expiredDeletionsAreSweptAndMakeRoomForNewBlocks() throws InterruptedException {
+        UserStatusCache cache = cache(2, Duration.ofMillis(100), Duration.ofMillis(1));
+        cache.delete(1L);
+        cache.delete(2L);
+        cache.update(user(3, true));
+        assertThat(cache.isBlocked(3L)).as("over max-size").isFalse();
+        
+        Thread.sleep(150);
+        cache.update(user(4, true));
+        
+        assertThat(cache.isBlocked(4L)).isTrue();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}